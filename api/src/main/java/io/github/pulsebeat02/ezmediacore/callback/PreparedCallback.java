@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.callback;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A callback which splits processing a frame into two stages. Buffered players run {@link
+ * #prepare(int[], byte[])} on the decoding thread and only keep the prepared bytes, while {@link
+ * #present(byte[])} runs on the presentation thread once the frame is due. Players without a
+ * buffer keep calling {@link #process(int[])}.
+ */
+public interface PreparedCallback extends Callback {
+
+  /**
+   * Gets the size of a prepared frame.
+   *
+   * @param pixels the amount of pixels of the frame
+   * @return the amount of bytes {@link #prepare(int[], byte[])} writes
+   */
+  int getPreparedLength(final int pixels);
+
+  /**
+   * Converts a frame into the form it is presented in. The pixels are only valid during the call.
+   *
+   * @param data the pixels of the frame
+   * @param output the array to write the prepared frame into
+   */
+  void prepare(final int @NotNull [] data, final byte @NotNull [] output);
+
+  /**
+   * Presents a frame returned by {@link #prepare(int[], byte[])}. The array is reused once this
+   * method returns, so it must not be kept.
+   *
+   * @param prepared the prepared frame
+   */
+  void present(final byte @NotNull [] prepared);
+
+  /**
+   * Gets a key describing how frames are prepared. Callbacks with equal keys prepare equal frames
+   * from equal pixels, so a frame only has to be prepared once for all of them.
+   *
+   * @return the preparation key
+   */
+  default @NotNull Object getPreparationKey() {
+    return this;
+  }
+}
@@ -5,4 +5,20 @@ public interface BufferCarrier {
   byte getByte(final int index);
 
   int getCapacity();
+
+  /**
+   * Copies the bytes of the carrier into an array, starting at the first byte.
+   *
+   * @param destination the array to copy into
+   */
+  default void getBytes(final byte[] destination) {
+    for (int i = 0; i < destination.length; i++) {
+      destination[i] = this.getByte(i);
+    }
+  }
+
+  /**
+   * Returns the backing memory to its pool. The carrier must not be read after it was released.
+   */
+  void release();
 }
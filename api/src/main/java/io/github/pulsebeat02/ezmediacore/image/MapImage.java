@@ -40,6 +40,16 @@ public interface MapImage extends LibraryInjectable, Dimensional {
   @NotNull
   BufferedImage[][] process(@NotNull final BufferedImage image, final boolean resize);
 
+  /**
+   * Dithers an image into map tiles. Transparent pixels stay transparent.
+   *
+   * @param image the image
+   * @param resize whether to scale the image to the size of the maps, or crop it otherwise
+   * @return the palette indices of each 128x128 map, indexed by row and then column
+   */
+  byte @NotNull [] @NotNull [] @NotNull [] dither(
+      @NotNull final BufferedImage image, final boolean resize);
+
   void onFinishDrawImage();
 
   void resetMaps();
@@ -29,4 +29,22 @@ import org.jetbrains.annotations.NotNull;
 public interface MapRenderer {
 
   void drawMap(@NotNull final BufferedImage[][] images);
+
+  /**
+   * Draws already dithered tiles, as returned by {@link MapImage#dither(BufferedImage, boolean)}.
+   * This installs the renderers on the maps, so it has to be called on the server thread. The
+   * arrays must not be modified afterwards.
+   *
+   * @param tiles the palette indices of each map, indexed by row and then column
+   */
+  void drawTiles(final byte @NotNull [] @NotNull [] @NotNull [] tiles);
+
+  /**
+   * Swaps the tiles shown by the renderers {@link #drawTiles(byte[][][])} installed, without
+   * touching the maps, so it may be called from any thread. The arrays must not be modified
+   * afterwards.
+   *
+   * @param tiles the palette indices of each map, indexed by row and then column
+   */
+  void setTiles(final byte @NotNull [] @NotNull [] @NotNull [] tiles);
 }
@@ -0,0 +1,231 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+/*............................................................................................
+. Copyright © 2021 Brandon Li                                                               .
+.                                                                                           .
+. Permission is hereby granted, free of charge, to any person obtaining a copy of this      .
+. software and associated documentation files (the “Software”), to deal in the Software     .
+. without restriction, including without limitation the rights to use, copy, modify, merge, .
+. publish, distribute, sublicense, and/or sell copies of the Software, and to permit        .
+. persons to whom the Software is furnished to do so, subject to the following conditions:  .
+.                                                                                           .
+. The above copyright notice and this permission notice shall be included in all copies     .
+. or substantial portions of the Software.                                                  .
+.                                                                                           .
+. THE SOFTWARE IS PROVIDED “AS IS”, WITHOUT WARRANTY OF ANY KIND,                           .
+.  EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF                       .
+.   MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND                                   .
+.   NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS                     .
+.   BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN                      .
+.   ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN                       .
+.   CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE                        .
+.   SOFTWARE.                                                                               .
+............................................................................................*/
+
+package io.github.pulsebeat02.ezmediacore.nms;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Keeps the last dithered contents of every map id that was sent, so a frame only has to carry
+ * the bounding box of the pixels that actually changed since the previous one.
+ *
+ * <p>The contents are shared by every viewer, so each change bumps the version of the map. A
+ * delta only applies to a viewer which received the version right before it, see {@link
+ * ViewerPacing#checkBaselines(MapTileCache, int, int, int[], int[])}. Everyone else has to be sent
+ * a {@link #snapshot(int)} first.
+ */
+public final class MapTileCache {
+
+  private static final int MAP_SIZE = 128;
+  private static final int KEYFRAME_INTERVAL = 300;
+
+  private final Map<Integer, Tile> tiles;
+
+  public MapTileCache() {
+    this.tiles = new ConcurrentHashMap<>();
+  }
+
+  /**
+   * Compares the region of a map against the cached contents and stores the new pixels.
+   *
+   * @param map the map id
+   * @param topX the x offset of the region inside the map
+   * @param topY the y offset of the region inside the map
+   * @param width the width of the region
+   * @param height the height of the region
+   * @param data the region pixels, row-major with a stride of {@code width}. The array is not
+   *     retained, so callers may reuse it for the next region
+   * @return the minimal dirty region to send, or null if nothing changed
+   */
+  public @Nullable Region update(
+      final int map,
+      final int topX,
+      final int topY,
+      final int width,
+      final int height,
+      final byte @NotNull [] data) {
+    final Tile tile = this.tiles.computeIfAbsent(map, id -> new Tile());
+    final byte[] cached = tile.pixels;
+    tile.setBounds(topX, topY, width, height);
+    if (!tile.valid || ++tile.frames >= KEYFRAME_INTERVAL) {
+      tile.valid = true;
+      tile.frames = 0;
+      tile.version++;
+      this.store(cached, topX, topY, width, height, data);
+      return new Region(topX, topY, width, height, Arrays.copyOf(data, width * height));
+    }
+    int minX = width;
+    int minY = height;
+    int maxX = -1;
+    int maxY = -1;
+    for (int y = 0; y < height; y++) {
+      final int row = y * width;
+      final int cachedRow = (topY + y) * MAP_SIZE + topX;
+      for (int x = 0; x < width; x++) {
+        final byte value = data[row + x];
+        if (cached[cachedRow + x] != value) {
+          cached[cachedRow + x] = value;
+          if (x < minX) {
+            minX = x;
+          }
+          if (x > maxX) {
+            maxX = x;
+          }
+          if (y < minY) {
+            minY = y;
+          }
+          maxY = y;
+        }
+      }
+    }
+    if (maxX < 0) {
+      return null;
+    }
+    tile.version++;
+    final int dirtyWidth = maxX - minX + 1;
+    final int dirtyHeight = maxY - minY + 1;
+    if (dirtyWidth == width && dirtyHeight == height) {
+      return new Region(topX, topY, width, height, Arrays.copyOf(data, width * height));
+    }
+    final byte[] dirty = new byte[dirtyWidth * dirtyHeight];
+    for (int y = 0; y < dirtyHeight; y++) {
+      System.arraycopy(data, (minY + y) * width + minX, dirty, y * dirtyWidth, dirtyWidth);
+    }
+    return new Region(topX + minX, topY + minY, dirtyWidth, dirtyHeight, dirty);
+  }
+
+  private void store(
+      final byte @NotNull [] cached,
+      final int topX,
+      final int topY,
+      final int width,
+      final int height,
+      final byte @NotNull [] data) {
+    for (int y = 0; y < height; y++) {
+      System.arraycopy(data, y * width, cached, (topY + y) * MAP_SIZE + topX, width);
+    }
+  }
+
+  /**
+   * Copies the last stored region of a map, which is used to resynchronize a viewer that missed
+   * one or more delta frames.
+   *
+   * @param map the map id
+   * @return the full region of the map, or null if the map was never sent
+   */
+  public @Nullable Region snapshot(final int map) {
+    final Tile tile = this.tiles.get(map);
+    if (tile == null || !tile.valid) {
+      return null;
+    }
+    final int topX = tile.x;
+    final int topY = tile.y;
+    final int width = tile.width;
+    final int height = tile.height;
+    final byte[] data = new byte[width * height];
+    for (int y = 0; y < height; y++) {
+      System.arraycopy(tile.pixels, (topY + y) * MAP_SIZE + topX, data, y * width, width);
+    }
+    return new Region(topX, topY, width, height, data);
+  }
+
+  /**
+   * Gets the version of a map, which changes every time {@link #update(int, int, int, int, int,
+   * byte[])} returns a region for it.
+   *
+   * @param map the map id
+   * @return the version, or 0 if the map was never sent
+   */
+  public int getVersion(final int map) {
+    final Tile tile = this.tiles.get(map);
+    return tile == null ? 0 : tile.version;
+  }
+
+  public void invalidate(final int map) {
+    final Tile tile = this.tiles.get(map);
+    if (tile != null) {
+      tile.valid = false;
+    }
+  }
+
+  public void invalidateAll() {
+    for (final Tile tile : this.tiles.values()) {
+      tile.valid = false;
+    }
+  }
+
+  public void remove(final int map) {
+    this.tiles.remove(map);
+  }
+
+  private static final class Tile {
+
+    private final byte[] pixels;
+    private volatile boolean valid;
+    private volatile int version;
+    private int frames;
+    private int x;
+    private int y;
+    private int width;
+    private int height;
+
+    private Tile() {
+      this.pixels = new byte[MAP_SIZE * MAP_SIZE];
+    }
+
+    private void setBounds(final int x, final int y, final int width, final int height) {
+      this.x = x;
+      this.y = y;
+      this.width = width;
+      this.height = height;
+    }
+  }
+
+  public record Region(int x, int y, int width, int height, byte @NotNull [] data) {}
+}
@@ -120,6 +120,10 @@ public interface PacketHandler {
 
   void uninjectPlayer(@NotNull final Player player);
 
+  double getEffectiveFrameRate(@NotNull final UUID viewer);
+
+  long getDroppedFrames(@NotNull final UUID viewer);
+
   boolean isMapRegistered(final int id);
 
   void unregisterMap(final int id);
@@ -0,0 +1,136 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.nms;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Per-viewer frame bookkeeping. Tracks which version of every map the viewer last received and
+ * which maps it missed, along with the frame rate the viewer is effectively receiving.
+ */
+public final class ViewerPacing {
+
+  private static final double SMOOTHING = 0.1;
+  private static final long STALE_NANOS = 1_000_000_000L;
+
+  private final BitSet stale;
+  private final Map<Integer, Integer> versions;
+  private long lastDelivered;
+  private double interval;
+  private long delivered;
+  private long dropped;
+
+  public ViewerPacing() {
+    this.stale = new BitSet();
+    this.versions = new HashMap<>();
+  }
+
+  /**
+   * Marks every map of a screen as stale which this viewer does not hold the baseline of, because
+   * it started viewing later or was left out of the frames in between. A map of the frame needs
+   * the version right before its delta, while every other map needs its current version. Maps
+   * which were never sent need no baseline.
+   *
+   * @param tiles the contents the maps were computed from
+   * @param fromInclusive the first map of the screen
+   * @param toExclusive the map after the last one of the screen
+   * @param maps the maps of the frame, in ascending order
+   * @param versions the version of each map after the frame
+   */
+  public synchronized void checkBaselines(
+      @NotNull final MapTileCache tiles,
+      final int fromInclusive,
+      final int toExclusive,
+      final int @NotNull [] maps,
+      final int @NotNull [] versions) {
+    int index = 0;
+    for (int map = fromInclusive; map < toExclusive; map++) {
+      final int baseline =
+          index < maps.length && maps[index] == map ? versions[index++] - 1 : tiles.getVersion(map);
+      if (baseline == 0) {
+        continue;
+      }
+      final Integer received = this.versions.get(map);
+      if (received == null || received != baseline) {
+        this.stale.set(map);
+      }
+    }
+  }
+
+  public synchronized void receive(final int map, final int version) {
+    this.versions.put(map, version);
+  }
+
+  public synchronized void deliver(final int @NotNull [] maps, final int @NotNull [] versions) {
+    for (int i = 0; i < maps.length; i++) {
+      this.versions.put(maps[i], versions[i]);
+    }
+    this.deliver();
+  }
+
+  private void deliver() {
+    final long now = System.nanoTime();
+    if (this.lastDelivered != 0) {
+      final long elapsed = now - this.lastDelivered;
+      this.interval =
+          this.interval == 0 ? elapsed : this.interval + SMOOTHING * (elapsed - this.interval);
+    }
+    this.lastDelivered = now;
+    this.delivered++;
+  }
+
+  public synchronized void drop(final int @NotNull [] maps) {
+    for (final int map : maps) {
+      this.stale.set(map);
+    }
+    this.dropped++;
+  }
+
+  public synchronized int @NotNull [] drainStale(final int fromInclusive, final int toExclusive) {
+    final int[] maps =
+        this.stale.get(fromInclusive, toExclusive).stream().map(i -> i + fromInclusive).toArray();
+    this.stale.clear(fromInclusive, toExclusive);
+    return maps;
+  }
+
+  public synchronized double getFrameRate() {
+    if (this.interval == 0) {
+      return 0;
+    }
+    final long since = System.nanoTime() - this.lastDelivered;
+    final double interval = since > STALE_NANOS ? Math.max(since, this.interval) : this.interval;
+    return 1.0E9 / interval;
+  }
+
+  public synchronized long getDeliveredFrames() {
+    return this.delivered;
+  }
+
+  public synchronized long getDroppedFrames() {
+    return this.dropped;
+  }
+}
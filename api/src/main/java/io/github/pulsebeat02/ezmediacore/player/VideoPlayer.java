@@ -40,6 +40,7 @@ public interface VideoPlayer extends LibraryInjectable, Viewable, Dimensional {
   Identifier<String> VLC = Identifier.ofIdentifier("VLC");
   Identifier<String> FFMPEG = Identifier.ofIdentifier("FFMPEG");
   Identifier<String> JCODEC = Identifier.ofIdentifier("JCODEC");
+  Identifier<String> PRERENDERED = Identifier.ofIdentifier("PRERENDERED");
 
   void initializePlayer(
       @NotNull final Input mrl,
@@ -49,4 +49,27 @@ public interface BufferedPlayer {
   void setStart(final long start);
 
   boolean isExecuting();
+
+  /**
+   * Gets the smoothed delay between the time a frame was due and the time it was presented.
+   *
+   * @return the drift in milliseconds
+   */
+  double getPresentationDrift();
+
+  long getPresentedFrames();
+
+  /**
+   * Gets the amount of frames presented more than one frame interval after their due time.
+   *
+   * @return the amount of late frames
+   */
+  long getLateFrames();
+
+  /**
+   * Gets the amount of frames skipped because a newer frame was already due.
+   *
+   * @return the amount of dropped frames
+   */
+  long getDroppedFrames();
 }
@@ -25,19 +25,25 @@ package io.github.pulsebeat02.ezmediacore.utility.graphics;
 
 import static java.lang.System.arraycopy;
 
-import java.awt.Color;
-import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.DataBufferInt;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
 /**
  * Stolen directly from https://github.com/DhyanB/Open-Imaging
+ *
+ * <p>Only the LZW encoded data of every frame is kept in memory. Frames are decoded on demand
+ * into a single reused canvas, and only the most recently requested frames are kept decoded.
  */
 public final class GifDecoder {
 
@@ -108,11 +114,11 @@ public final class GifDecoder {
   }
 
   public static GifImage read(@NotNull final InputStream is) throws IOException {
-    final byte[] data = new byte[is.available()];
-    if (is.read(data, 0, data.length) == -1) {
-      throw new IOException("Invalid data GIF input stream!");
-    }
-    return read(data);
+    return read(is.readAllBytes());
+  }
+
+  public static GifImage read(@NotNull final Path path) throws IOException {
+    return read(Files.readAllBytes(path));
   }
 
   static int readAppExt(@NotNull final GifImage img, final byte[] in, int i) {
@@ -374,11 +380,12 @@ public final class GifDecoder {
     private int clearCode;
     private int endOfInfoCode;
     private byte[] data; // Holds LZW encoded data
-    private BufferedImage img; // Full drawn image, not just the frame area
   }
 
   public static final class GifImage {
 
+    private static final int DEFAULT_CACHE_SIZE = 4;
+
     private final List<GifFrame> frames = new ArrayList<>(64);
     private final BitReader bits = new BitReader();
     private final CodeTable codes = new CodeTable();
@@ -396,23 +403,37 @@ public final class GifDecoder {
     private int w; // Unsigned 16 Bit, least significant byte first
     private int h; // Unsigned 16 Bit, least significant byte first
     private int wh; // Image width * image height
-    private BufferedImage img = null; // Currently drawn frame
-    private Graphics2D g;
+    private int[] canvas; // Canvas after the disposal of the last drawn frame
+    private int[] previous; // Canvas before the last drawn frame, for RESTORE_PREV
+    private int[] indexed; // Reused output of the LZW decoder
+    private int[] interlaced; // Reused output of the deinterlacer
+    private int position = -1; // Index of the last drawn frame
+    private int cacheSize = DEFAULT_CACHE_SIZE;
+    private final Map<Integer, BufferedImage> cache =
+        new LinkedHashMap<>(16, 0.75F, true) {
+          @Override
+          protected boolean removeEldestEntry(final Map.Entry<Integer, BufferedImage> eldest) {
+            return this.size() > GifImage.this.cacheSize;
+          }
+        };
 
     private int @NotNull [] decode(final GifFrame fr, final int[] activeColTbl) {
       this.codes.init(fr, activeColTbl, this.bits);
       this.bits.init(fr.data); // Incoming codes
       final int clearCode = fr.clearCode, endCode = fr.endOfInfoCode;
-      final int[] out = new int[this.wh]; // Target image pixel array
+      if (this.indexed == null || this.indexed.length < fr.wh) {
+        this.indexed = new int[fr.wh];
+      }
+      final int[] out = this.indexed; // Target frame pixel array
       final int[][] tbl = this.codes.tbl; // Code table
       int outPos = 0; // Next pixel position in the output image array
-      this.codes.clear(); // Init code table
-      this.bits.read(); // Skip leading clear code
-      int code = this.bits.read(); // Read first code
-      int[] pixels = tbl[code]; // Output pixel for first code
-      arraycopy(pixels, 0, out, outPos, pixels.length);
-      outPos += pixels.length;
       try {
+        this.codes.clear(); // Init code table
+        this.bits.read(); // Skip leading clear code
+        int code = this.bits.read(); // Read first code
+        int[] pixels = tbl[code]; // Output pixel for first code
+        arraycopy(pixels, 0, out, outPos, pixels.length);
+        outPos += pixels.length;
         while (true) {
           final int prevCode = code;
           code = this.bits.read(); // Get next code in stream
@@ -443,12 +464,17 @@ public final class GifDecoder {
         }
       } catch (final ArrayIndexOutOfBoundsException ignored) {
       }
+      // Truncated data leaves the rest of the frame transparent
+      Arrays.fill(out, Math.min(outPos, fr.wh), fr.wh, 0);
       return out;
     }
 
     private int @NotNull [] deinterlace(final int @NotNull [] src, @NotNull final GifFrame fr) {
       final int w = fr.w, h = fr.h, wh = fr.wh;
-      final int[] dest = new int[src.length];
+      if (this.interlaced == null || this.interlaced.length < wh) {
+        this.interlaced = new int[wh];
+      }
+      final int[] dest = this.interlaced;
       // Interlaced images are organized in 4 sets of pixel lines
       final int set2Y = (h + 7) >>> 3; // Line no. = ceil(h/8.0)
       final int set3Y = set2Y + ((h + 3) >>> 3); // ceil(h-4/8.0)
@@ -482,48 +508,61 @@ public final class GifDecoder {
       if (fr.interlaceFlag) {
         pixels = this.deinterlace(pixels, fr); // Rearrange pixel lines
       }
-      // Create image of type 2=ARGB for frame area
-      final BufferedImage frame = new BufferedImage(fr.w, fr.h, 2);
-      arraycopy(pixels, 0, ((DataBufferInt) frame.getRaster().getDataBuffer()).getData(), 0, fr.wh);
-      // Draw frame area on top of working image
-      this.g.drawImage(frame, fr.x, fr.y, null);
-
-      // Visualize frame boundaries during testing
-      // if (DEBUG_MODE) {
-      // if (prev != null) {
-      // g.setColor(Color.RED); // Previous frame color
-      // g.drawRect(prev.x, prev.y, prev.w - 1, prev.h - 1);
-      // }
-      // g.setColor(Color.GREEN); // New frame color
-      // g.drawRect(fr.x, fr.y, fr.w - 1, fr.h - 1);
-      // }
-
-      // Keep one copy as "previous frame" in case we need to restore it
-      // Previous frame's pixels
-      final int[] prevPx = new int[this.wh];
-      arraycopy(
-          ((DataBufferInt) this.img.getRaster().getDataBuffer()).getData(), 0, prevPx, 0, this.wh);
-
-      // Create another copy for the end user to not expose internal state
-      fr.img = new BufferedImage(this.w, this.h, 2); // 2 = ARGB
-      arraycopy(
-          prevPx, 0, ((DataBufferInt) fr.img.getRaster().getDataBuffer()).getData(), 0, this.wh);
-
-      // Handle disposal of current frame
+      // Keep one copy of the canvas in case the frame has to be undone
+      if (fr.disposalMethod == 3) {
+        if (this.previous == null) {
+          this.previous = new int[this.wh];
+        }
+        arraycopy(this.canvas, 0, this.previous, 0, this.wh);
+      }
+      // Draw frame area on top of the canvas, skipping transparent pixels
+      final int right = Math.min(fr.x + fr.w, this.w);
+      final int bottom = Math.min(fr.y + fr.h, this.h);
+      for (int y = fr.y; y < bottom; y++) {
+        final int from = (y - fr.y) * fr.w - fr.x;
+        final int to = y * this.w;
+        for (int x = fr.x; x < right; x++) {
+          final int argb = pixels[from + x];
+          if (argb != 0) {
+            this.canvas[to + x] = argb;
+          }
+        }
+      }
+    }
+
+    private void disposeFrame(@NotNull final GifFrame fr) {
       if (fr.disposalMethod == 2) {
         // Restore to background color (clear frame area only)
-        this.g.clearRect(fr.x, fr.y, fr.w, fr.h);
+        final int right = Math.min(fr.x + fr.w, this.w);
+        final int bottom = Math.min(fr.y + fr.h, this.h);
+        for (int y = fr.y; y < bottom && fr.x < right; y++) {
+          Arrays.fill(this.canvas, y * this.w + fr.x, y * this.w + right, 0);
+        }
       } else if (fr.disposalMethod == 3) {
         // Restore previous frame
-        arraycopy(
-            prevPx,
-            0,
-            ((DataBufferInt) this.img.getRaster().getDataBuffer()).getData(),
-            0,
-            this.wh);
+        arraycopy(this.previous, 0, this.canvas, 0, this.wh);
       }
     }
 
+    private @NotNull BufferedImage copyCanvas() {
+      final BufferedImage image = new BufferedImage(this.w, this.h, BufferedImage.TYPE_INT_ARGB);
+      final int[] data = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+      arraycopy(this.canvas, 0, data, 0, this.wh);
+      return image;
+    }
+
+    /**
+     * Sets how many decoded frames are kept. Frames are composed on top of each other, so playing
+     * them in order is cheap, but going back to a frame that is no longer kept draws every frame
+     * from the start again.
+     *
+     * @param cacheSize the amount of decoded frames to keep
+     */
+    public synchronized void setCacheSize(final int cacheSize) {
+      this.cacheSize = Math.max(cacheSize, 0);
+      this.cache.keySet().removeIf(index -> this.cache.size() > this.cacheSize);
+    }
+
     public int getBackgroundColor() {
       final GifFrame frame = this.frames.get(0);
       if (frame.hasLocColTbl) {
@@ -538,23 +577,32 @@ public final class GifDecoder {
       return this.frames.get(index).delay;
     }
 
-    public BufferedImage getFrame(final int index) {
-      if (this.img == null) { // Init
-        this.img = new BufferedImage(this.w, this.h, 2); // 2 = ARGB
-        this.g = this.img.createGraphics();
-        this.g.setBackground(new Color(0, true)); // Transparent color
+    public synchronized BufferedImage getFrame(final int index) {
+      final BufferedImage cached = this.cache.get(index);
+      if (cached != null) {
+        return cached;
       }
-      GifFrame fr = this.frames.get(index);
-      if (fr.img == null) {
-        // Draw all frames until and including the requested frame
-        for (int i = 0; i <= index; i++) {
-          fr = this.frames.get(i);
-          if (fr.img == null) {
-            this.drawFrame(fr);
-          }
-        }
+      final GifFrame target = this.frames.get(index);
+      if (this.canvas == null) {
+        this.canvas = new int[this.wh];
+      }
+      if (index <= this.position) {
+        // Start over, as frames can't be undone
+        Arrays.fill(this.canvas, 0);
+        this.position = -1;
+      }
+      // Draw all frames until and including the requested frame
+      for (int i = this.position + 1; i < index; i++) {
+        final GifFrame fr = this.frames.get(i);
+        this.drawFrame(fr);
+        this.disposeFrame(fr);
       }
-      return fr.img;
+      this.drawFrame(target);
+      final BufferedImage image = this.copyCanvas();
+      this.disposeFrame(target);
+      this.position = index;
+      this.cache.put(index, image);
+      return image;
     }
 
     public int getFrameCount() {
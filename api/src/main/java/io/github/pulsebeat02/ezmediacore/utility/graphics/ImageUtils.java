@@ -24,8 +24,8 @@
 package io.github.pulsebeat02.ezmediacore.utility.graphics;
 
 import java.awt.Graphics2D;
-import java.awt.Image;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
 import org.jetbrains.annotations.NotNull;
 
 public final class ImageUtils {
@@ -34,13 +34,24 @@ public final class ImageUtils {
 
   public static @NotNull BufferedImage resize(
       @NotNull final BufferedImage img, final int width, final int height) {
+    final int[] pixels = getPixels(img);
+    final int[] scaled = PixelScaler.scale(pixels, img.getWidth(), img.getHeight(), width, height);
     final BufferedImage resized = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-    final Graphics2D g2d = resized.createGraphics();
-    g2d.drawImage(img.getScaledInstance(width, height, Image.SCALE_SMOOTH), 0, 0, null);
-    g2d.dispose();
+    final int[] data = ((DataBufferInt) resized.getRaster().getDataBuffer()).getData();
+    System.arraycopy(scaled, 0, data, 0, scaled.length);
     return resized;
   }
 
+  public static int @NotNull [] getPixels(@NotNull final BufferedImage img) {
+    final int width = img.getWidth();
+    return img.getRGB(0, 0, width, img.getHeight(), null, 0, width);
+  }
+
+  /**
+   * @deprecated draws the image onto itself and never produced separate tiles, use {@link
+   *     PixelScaler#slice(int[], int, int)} instead
+   */
+  @Deprecated
   public static void trimForMapSize(@NotNull final BufferedImage img, final int x, final int y) {
     final Graphics2D gr = img.createGraphics();
     gr.drawImage(img, 0, 0, 128, 128, y << 7, x << 7, (y << 7) + 128, (x << 7) + 128, null);
@@ -26,6 +26,7 @@ package io.github.pulsebeat02.ezmediacore.utility.graphics;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static java.util.Objects.requireNonNull;
 
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
 import java.util.Arrays;
 import java.util.List;
 import org.bukkit.Material;
@@ -95,4 +96,42 @@ public final class MapUtils {
       }
     }
   }
+
+  /**
+   * Copies the part of a dithered video frame that lands on a single map into a row-major tile.
+   *
+   * @param rgb the dithered frame
+   * @param tile the tile to copy into, at least {@code width * height} long
+   * @param videoWidth the width of the frame
+   * @param xOffset the x offset of the frame on the screen
+   * @param yOffset the y offset of the frame on the screen
+   * @param relX the x position of the map on the screen, in pixels
+   * @param relY the y position of the map on the screen, in pixels
+   * @param topX the first covered x coordinate inside the map
+   * @param topY the first covered y coordinate inside the map
+   * @param width the covered width inside the map
+   * @param height the covered height inside the map
+   */
+  public static void copyTile(
+      @NotNull final BufferCarrier rgb,
+      final byte @NotNull [] tile,
+      final int videoWidth,
+      final int xOffset,
+      final int yOffset,
+      final int relX,
+      final int relY,
+      final int topX,
+      final int topY,
+      final int width,
+      final int height) {
+    final int xPixMax = topX + width;
+    final int yPixMax = topY + height;
+    for (int iy = topY; iy < yPixMax; iy++) {
+      final int indexY = (relY + iy - yOffset) * videoWidth + relX - xOffset;
+      final int row = (iy - topY) * width - topX;
+      for (int ix = topX; ix < xPixMax; ix++) {
+        tile[row + ix] = rgb.getByte(indexY + ix);
+      }
+    }
+  }
 }
@@ -0,0 +1,325 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.utility.graphics;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Scales and slices ARGB pixels without going through AWT. Scaling is separable and done in fixed
+ * point: every axis which shrinks is area averaged and every axis which grows is interpolated
+ * linearly. Large images are scaled one band of rows at a time on the common fork join pool.
+ */
+public final class PixelScaler {
+
+  private static final int MAP_SIZE = 128;
+  private static final int WEIGHT_BITS = 12;
+  private static final int WEIGHT_ONE = 1 << WEIGHT_BITS;
+  private static final int INTERMEDIATE_SHIFT = WEIGHT_BITS - 8;
+  private static final int OUTPUT_SHIFT = WEIGHT_BITS + 8;
+  private static final int PARALLEL_THRESHOLD = 128 * 128;
+  private static final int ROWS_PER_TASK = 16;
+
+  private PixelScaler() {}
+
+  /**
+   * Scales ARGB pixels to the given size.
+   *
+   * @param pixels the source pixels, row by row
+   * @param width the source width
+   * @param height the source height
+   * @param scaledWidth the target width
+   * @param scaledHeight the target height
+   * @return the scaled pixels
+   */
+  public static int @NotNull [] scale(
+      final int @NotNull [] pixels,
+      final int width,
+      final int height,
+      final int scaledWidth,
+      final int scaledHeight) {
+    checkNotNull(pixels, "Pixels cannot be null!");
+    checkArgument(width > 0 && height > 0, "Invalid source dimensions!");
+    checkArgument(scaledWidth > 0 && scaledHeight > 0, "Invalid target dimensions!");
+    checkArgument(pixels.length >= width * height, "Pixels don't match the source dimensions!");
+    if (width == scaledWidth && height == scaledHeight) {
+      return pixels.clone();
+    }
+    final Kernel horizontal = Kernel.ofKernel(width, scaledWidth);
+    final Kernel vertical = Kernel.ofKernel(height, scaledHeight);
+    final int[] intermediate = new int[height * scaledWidth << 2];
+    final int[] output = new int[scaledWidth * scaledHeight];
+    run(height, scaledWidth, (start, end) -> {
+      for (int y = start; y < end; y++) {
+        scaleRow(pixels, y * width, intermediate, y * scaledWidth << 2, horizontal);
+      }
+    });
+    run(scaledHeight, scaledWidth, (start, end) -> {
+      for (int y = start; y < end; y++) {
+        scaleColumn(intermediate, scaledWidth, output, y, vertical);
+      }
+    });
+    return output;
+  }
+
+  /**
+   * Splits pixels into map tiles. The pixels must cover exactly {@code rows} by {@code columns}
+   * maps.
+   *
+   * @param pixels the pixels, row by row
+   * @param rows the amount of map rows
+   * @param columns the amount of map columns
+   * @return the tiles, indexed by row and column
+   */
+  public static int @NotNull [] @NotNull [] @NotNull [] slice(
+      final int @NotNull [] pixels, final int rows, final int columns) {
+    checkNotNull(pixels, "Pixels cannot be null!");
+    checkArgument(pixels.length == rows * columns * MAP_SIZE * MAP_SIZE, "Invalid tile matrix!");
+    final int[][][] tiles = new int[rows][columns][MAP_SIZE * MAP_SIZE];
+    final int width = columns * MAP_SIZE;
+    for (int row = 0; row < rows; row++) {
+      for (int column = 0; column < columns; column++) {
+        final int start = row * MAP_SIZE * width + column * MAP_SIZE;
+        for (int y = 0; y < MAP_SIZE; y++) {
+          System.arraycopy(pixels, start + y * width, tiles[row][column], y * MAP_SIZE, MAP_SIZE);
+        }
+      }
+    }
+    return tiles;
+  }
+
+  /**
+   * Splits palette indices into map tiles. The indices must cover exactly {@code rows} by {@code
+   * columns} maps.
+   *
+   * @param indices the indices, row by row
+   * @param rows the amount of map rows
+   * @param columns the amount of map columns
+   * @return the tiles, indexed by row and column
+   */
+  public static byte @NotNull [] @NotNull [] @NotNull [] slice(
+      final byte @NotNull [] indices, final int rows, final int columns) {
+    checkNotNull(indices, "Indices cannot be null!");
+    checkArgument(indices.length == rows * columns * MAP_SIZE * MAP_SIZE, "Invalid tile matrix!");
+    final byte[][][] tiles = new byte[rows][columns][MAP_SIZE * MAP_SIZE];
+    final int width = columns * MAP_SIZE;
+    for (int row = 0; row < rows; row++) {
+      for (int column = 0; column < columns; column++) {
+        final int start = row * MAP_SIZE * width + column * MAP_SIZE;
+        for (int y = 0; y < MAP_SIZE; y++) {
+          System.arraycopy(indices, start + y * width, tiles[row][column], y * MAP_SIZE, MAP_SIZE);
+        }
+      }
+    }
+    return tiles;
+  }
+
+  private static void scaleRow(
+      final int @NotNull [] pixels,
+      final int offset,
+      final int @NotNull [] output,
+      final int outputOffset,
+      @NotNull final Kernel kernel) {
+    for (int x = 0; x < kernel.size(); x++) {
+      final int start = kernel.starts[x];
+      final int base = x * kernel.taps;
+      int a = 0;
+      int r = 0;
+      int g = 0;
+      int b = 0;
+      for (int i = 0; i < kernel.counts[x]; i++) {
+        final int weight = kernel.weights[base + i];
+        final int argb = pixels[offset + start + i];
+        a += (argb >>> 24) * weight;
+        r += (argb >> 16 & 0xFF) * weight;
+        g += (argb >> 8 & 0xFF) * weight;
+        b += (argb & 0xFF) * weight;
+      }
+      final int index = outputOffset + (x << 2);
+      output[index] = a >> INTERMEDIATE_SHIFT;
+      output[index + 1] = r >> INTERMEDIATE_SHIFT;
+      output[index + 2] = g >> INTERMEDIATE_SHIFT;
+      output[index + 3] = b >> INTERMEDIATE_SHIFT;
+    }
+  }
+
+  private static void scaleColumn(
+      final int @NotNull [] intermediate,
+      final int width,
+      final int @NotNull [] output,
+      final int y,
+      @NotNull final Kernel kernel) {
+    final int start = kernel.starts[y];
+    final int count = kernel.counts[y];
+    final int base = y * kernel.taps;
+    final int round = 1 << OUTPUT_SHIFT - 1;
+    for (int x = 0; x < width; x++) {
+      int a = round;
+      int r = round;
+      int g = round;
+      int b = round;
+      for (int i = 0; i < count; i++) {
+        final int weight = kernel.weights[base + i];
+        final int index = ((start + i) * width + x) << 2;
+        a += intermediate[index] * weight;
+        r += intermediate[index + 1] * weight;
+        g += intermediate[index + 2] * weight;
+        b += intermediate[index + 3] * weight;
+      }
+      output[y * width + x] =
+          clamp(a >> OUTPUT_SHIFT) << 24
+              | clamp(r >> OUTPUT_SHIFT) << 16
+              | clamp(g >> OUTPUT_SHIFT) << 8
+              | clamp(b >> OUTPUT_SHIFT);
+    }
+  }
+
+  private static int clamp(final int value) {
+    return Math.min(value, 0xFF);
+  }
+
+  private static void run(final int rows, final int width, @NotNull final RowTask task) {
+    if (rows * width < PARALLEL_THRESHOLD) {
+      task.run(0, rows);
+    } else {
+      ForkJoinPool.commonPool().invoke(new RowAction(task, 0, rows));
+    }
+  }
+
+  @FunctionalInterface
+  private interface RowTask {
+    void run(int start, int end);
+  }
+
+  private static final class RowAction extends RecursiveAction {
+
+    private final RowTask task;
+    private final int start;
+    private final int end;
+
+    RowAction(@NotNull final RowTask task, final int start, final int end) {
+      this.task = task;
+      this.start = start;
+      this.end = end;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.end - this.start <= ROWS_PER_TASK) {
+        this.task.run(this.start, this.end);
+        return;
+      }
+      final int middle = (this.start + this.end) >>> 1;
+      invokeAll(
+          new RowAction(this.task, this.start, middle), new RowAction(this.task, middle, this.end));
+    }
+  }
+
+  /**
+   * The source pixels and fixed point weights of every target pixel along one axis. The weights
+   * of a target pixel always add up to {@link #WEIGHT_ONE}.
+   */
+  private static final class Kernel {
+
+    private final int[] starts;
+    private final int[] counts;
+    private final int[] weights;
+    private final int taps;
+
+    private Kernel(final int size, final int taps) {
+      this.starts = new int[size];
+      this.counts = new int[size];
+      this.weights = new int[size * taps];
+      this.taps = taps;
+    }
+
+    static @NotNull Kernel ofKernel(final int source, final int target) {
+      return target < source ? ofArea(source, target) : ofLinear(source, target);
+    }
+
+    /**
+     * Target pixel {@code x} covers {@code [x * source, (x + 1) * source)} and source pixel {@code
+     * i} covers {@code [i * target, (i + 1) * target)}, so overlaps are exact integers.
+     */
+    private static @NotNull Kernel ofArea(final int source, final int target) {
+      final Kernel kernel = new Kernel(target, (source + target - 1) / target + 1);
+      for (int x = 0; x < target; x++) {
+        final long from = (long) x * source;
+        final long to = from + source;
+        final int start = (int) (from / target);
+        final int end = (int) ((to + target - 1) / target);
+        final int base = x * kernel.taps;
+        int total = 0;
+        for (int i = start; i < end; i++) {
+          final long overlap =
+              Math.min(to, (long) (i + 1) * target) - Math.max(from, (long) i * target);
+          final int weight = (int) (overlap * WEIGHT_ONE / source);
+          kernel.weights[base + i - start] = weight;
+          total += weight;
+        }
+        kernel.starts[x] = start;
+        kernel.counts[x] = end - start;
+        kernel.distribute(base, end - start, WEIGHT_ONE - total);
+      }
+      return kernel;
+    }
+
+    /** Samples at pixel centres, with the edges clamped. */
+    private static @NotNull Kernel ofLinear(final int source, final int target) {
+      final Kernel kernel = new Kernel(target, 2);
+      final long denominator = 2L * target;
+      for (int x = 0; x < target; x++) {
+        final long numerator = Math.max((2L * x + 1) * source - target, 0);
+        final int start = (int) Math.min(numerator / denominator, source - 1);
+        final int fraction =
+            start == source - 1
+                ? 0
+                : (int) ((numerator - start * denominator) * WEIGHT_ONE / denominator);
+        kernel.starts[x] = start;
+        kernel.counts[x] = fraction == 0 ? 1 : 2;
+        kernel.weights[x << 1] = WEIGHT_ONE - fraction;
+        kernel.weights[(x << 1) + 1] = fraction;
+      }
+      return kernel;
+    }
+
+    private void distribute(final int base, final int count, final int remainder) {
+      int largest = base;
+      for (int i = base + 1; i < base + count; i++) {
+        if (this.weights[i] > this.weights[largest]) {
+          largest = i;
+        }
+      }
+      this.weights[largest] += remainder;
+    }
+
+    int size() {
+      return this.starts.length;
+    }
+  }
+}
@@ -44,6 +44,9 @@ public final class ScreenConfig {
   @SerializedName(value = "native-dithering")
   private boolean nativeDithering = false;
 
+  @SerializedName(value = "adaptive-quality")
+  private boolean adaptiveQuality = false;
+
   @SerializedName(value = "player-algorithm")
   private PlayerAlgorithm playerAlgorithm = PlayerAlgorithm.UNSPECIFIED;
 
@@ -231,4 +234,12 @@ public final class ScreenConfig {
   public boolean getNativeDithering() {
     return this.nativeDithering;
   }
+
+  public void setAdaptiveQuality(final boolean adaptiveQuality) {
+    this.adaptiveQuality = adaptiveQuality;
+  }
+
+  public boolean getAdaptiveQuality() {
+    return this.adaptiveQuality;
+  }
 }
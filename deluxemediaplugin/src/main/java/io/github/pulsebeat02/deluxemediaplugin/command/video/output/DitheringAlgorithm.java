@@ -66,10 +66,14 @@ import static io.github.pulsebeat02.ezmediacore.dither.algorithm.random.RandomDi
 import static io.github.pulsebeat02.ezmediacore.dither.algorithm.random.RandomDither.NORMAL_WEIGHT;
 
 import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.DiffusionKernel;
 import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.FilterLiteDither;
 import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.FloydDither;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.WavefrontDither;
 import io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered.OrderedDither;
 import io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered.OrderedPixelMapper;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.palette.FFmpegPaletteDither;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.palette.FFmpegPaletteDither.Mode;
 import io.github.pulsebeat02.ezmediacore.dither.algorithm.random.RandomDither;
 import io.github.pulsebeat02.ezmediacore.dither.algorithm.simple.SimpleDither;
 import io.github.pulsebeat02.ezmediacore.natives.DitherLibC;
@@ -82,6 +86,8 @@ import org.jetbrains.annotations.Nullable;
 public enum DitheringAlgorithm {
   FILTER_LITE(new FilterLiteDither(), useNative() ? new FilterLiteDither(false) : null),
   FLOYD_STEINBERG(new FloydDither(), useNative() ? new FloydDither(false) : null),
+  FILTER_LITE_PARALLEL(new WavefrontDither(DiffusionKernel.FILTER_LITE)),
+  FLOYD_STEINBERG_PARALLEL(new WavefrontDither(DiffusionKernel.FLOYD_STEINBERG)),
 
   BAYER_2X2(ordered(NORMAL_2X2, NORMAL_2X2_MAX)),
   BAYER_4X4(ordered(NORMAL_4X4, NORMAL_4X4_MAX)),
@@ -117,7 +123,11 @@ public enum DitheringAlgorithm {
       new RandomDither(NORMAL_WEIGHT), new RandomDither(NORMAL_WEIGHT, useNative())),
   RANDOM_DITHER_HEAVY(new RandomDither(HEAVY_WEIGHT), new RandomDither(HEAVY_WEIGHT, useNative())),
 
-  SIMPLE_DITHER(new SimpleDither());
+  SIMPLE_DITHER(new SimpleDither()),
+
+  FFMPEG_BAYER(new FFmpegPaletteDither(Mode.BAYER)),
+  FFMPEG_FLOYD_STEINBERG(new FFmpegPaletteDither(Mode.FLOYD_STEINBERG)),
+  FFMPEG_SIERRA2_4A(new FFmpegPaletteDither(Mode.SIERRA2_4A));
 
   private static final Map<String, DitheringAlgorithm> KEY_LOOKUP;
 
@@ -157,6 +167,10 @@ public enum DitheringAlgorithm {
     return this.nativeAlgorithm;
   }
 
+  public boolean isFFmpegPalette() {
+    return this.algorithm instanceof FFmpegPaletteDither;
+  }
+
   public boolean isNativelySupported() {
     return this.nativeAlgorithm != null;
   }
@@ -35,6 +35,7 @@ import io.github.pulsebeat02.deluxemediaplugin.command.video.output.DitheringAlg
 import io.github.pulsebeat02.ezmediacore.callback.CallbackBuilder;
 import io.github.pulsebeat02.ezmediacore.callback.MapCallback;
 import io.github.pulsebeat02.ezmediacore.callback.MapCallback.Builder;
+import io.github.pulsebeat02.ezmediacore.callback.quality.QualityController;
 import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
 import io.github.pulsebeat02.ezmediacore.player.VideoBuilder;
 import java.util.Collection;
@@ -66,7 +67,15 @@ public class ItemframeOutput extends VideoOutput {
 
     final MapCallback.Builder builder = this.createMapBuilder(attributes, players);
 
-    final VideoBuilder videoBuilder = this.getBuilder(attributes);
+    final VideoBuilder videoBuilder =
+        attributes.getDitheringAlgorithm().isFFmpegPalette()
+            ? VideoBuilder.ffmpeg()
+            : this.getBuilder(attributes);
+    if (attributes.getAdaptiveQuality()) {
+      builder.quality(
+          QualityController.ofController(
+              plugin.library(), this.getAlgorithm(attributes), videoBuilder.getRate()));
+    }
     videoBuilder.dims(
         ofDimension(attributes.getResolutionWidth(), attributes.getResolutionHeight()));
     videoBuilder.soundKey(ofSound("emc"));
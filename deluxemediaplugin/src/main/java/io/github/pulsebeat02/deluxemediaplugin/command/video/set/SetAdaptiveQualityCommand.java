@@ -0,0 +1,88 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package io.github.pulsebeat02.deluxemediaplugin.command.video.set;
+
+import static com.mojang.brigadier.Command.SINGLE_SUCCESS;
+import static io.github.pulsebeat02.deluxemediaplugin.command.Permission.has;
+
+import com.mojang.brigadier.arguments.BoolArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+import com.mojang.brigadier.suggestion.Suggestions;
+import com.mojang.brigadier.suggestion.SuggestionsBuilder;
+import com.mojang.brigadier.tree.LiteralCommandNode;
+import io.github.pulsebeat02.deluxemediaplugin.DeluxeMediaPlugin;
+import io.github.pulsebeat02.deluxemediaplugin.command.CommandSegment;
+import io.github.pulsebeat02.deluxemediaplugin.command.video.ScreenConfig;
+import io.github.pulsebeat02.deluxemediaplugin.message.Locale;
+import java.util.concurrent.CompletableFuture;
+import net.kyori.adventure.audience.Audience;
+import org.bukkit.command.CommandSender;
+import org.jetbrains.annotations.NotNull;
+
+public final class SetAdaptiveQualityCommand implements CommandSegment.Literal<CommandSender> {
+
+  private final DeluxeMediaPlugin plugin;
+  private final LiteralCommandNode<CommandSender> node;
+  private final ScreenConfig config;
+
+  public SetAdaptiveQualityCommand(
+      @NotNull final DeluxeMediaPlugin plugin, @NotNull final ScreenConfig config) {
+    this.plugin = plugin;
+    this.config = config;
+    this.node =
+        this.literal("adaptive-quality")
+            .requires(has("deluxemediaplugin.command.video.set.adaptivequality"))
+            .then(
+                this.argument("enabled", BoolArgumentType.bool())
+                    .suggests(this::suggestAdaptiveQuality)
+                    .executes(this::setAdaptiveQuality))
+            .build();
+  }
+
+  private @NotNull CompletableFuture<Suggestions> suggestAdaptiveQuality(
+      @NotNull final CommandContext<CommandSender> context,
+      @NotNull final SuggestionsBuilder builder) {
+    builder.suggest("true");
+    builder.suggest("false");
+    return builder.buildFuture();
+  }
+
+  private int setAdaptiveQuality(@NotNull final CommandContext<CommandSender> context) {
+
+    final Audience audience = this.plugin.audience().sender(context.getSource());
+    final boolean enabled = context.getArgument("enabled", Boolean.TYPE);
+
+    this.config.setAdaptiveQuality(enabled);
+
+    audience.sendMessage(Locale.SET_ADAPTIVE_QUALITY.build(enabled));
+
+    return SINGLE_SUCCESS;
+  }
+
+  @Override
+  public @NotNull LiteralCommandNode<CommandSender> getNode() {
+    return this.node;
+  }
+}
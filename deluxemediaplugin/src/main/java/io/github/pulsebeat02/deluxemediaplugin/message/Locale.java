@@ -369,6 +369,9 @@ public interface Locale {
       "Loaded Resourcepack Successfully! (URL: %s, Hash: %s)".formatted(url, new String(hash))));
   BiComponent<Sender, String, byte[]> SENT_RESOURCEPACK = (url, hash) -> format(text(
       "Sent Resourcepack! (URL: %s, Hash: %s)".formatted(url, new String(hash))));
+  UniComponent<Sender, Boolean> SET_ADAPTIVE_QUALITY = (enabled) -> format(text(
+      "Set adaptive quality %s".formatted(enabled ? "on" : "off")
+  ));
   BiComponent<Sender, DitheringAlgorithm, Boolean> SET_NATIVE_DITHERING = (algorithm, enabled) -> format(text(
       "Set native dithering %s for dithering algorithm %s".formatted(enabled ? "on" : "off", algorithm.name())
   ));
@@ -2,10 +2,26 @@ import org.ajoberstar.grgit.Grgit
 
 plugins {
     id("com.github.johnrengelman.shadow") version "7.1.2"
+    id("me.champeau.jmh") version "0.6.6"
+}
+
+// The Vector API code is compiled on its own, so only that source set needs the incubating module
+// (and prints javac's warning about it). Main only calls into it after checking VectorSupport.
+val vector: SourceSet by sourceSets.creating
+
+sourceSets {
+    setOf("main", "test", "jmh").forEach {
+        named(it) {
+            compileClasspath += vector.output
+            runtimeClasspath += vector.output
+        }
+    }
 }
 
 dependencies {
 
+    "vectorCompileOnly"("org.jetbrains:annotations:23.0.0")
+
     setOf(
         "io.github.pulsebeat02:emc-dependency-management:v1.0.0",
         "io.github.pulsebeat02:emc-installers:v1.1.0",
@@ -16,6 +32,7 @@ dependencies {
 
     setOf("org.spigotmc:spigot-api:1.18.1-R0.1-SNAPSHOT").forEach {
         compileOnlyApi(it)
+        jmhImplementation(it)
     }
 
     // TESTING DEPENDENCIES
@@ -41,6 +58,7 @@ dependencies {
     ).forEach {
         compileOnly(it)
         testImplementation(it)
+        jmhImplementation(it)
     }
 
     // MAIN DEPENDENCIES
@@ -62,6 +80,7 @@ dependencies {
     ).forEach {
         compileOnly(it)
         testImplementation(it)
+        jmhImplementation(it)
     }
 
     // PROJECT DEPENDENCIES
@@ -74,12 +93,29 @@ dependencies {
     }
 }
 
+jmh {
+    jmhVersion.set("1.34")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    profilers.set(listOf("gc"))
+    resultFormat.set("JSON")
+    jvmArgsAppend.set(listOf("--add-modules=jdk.incubator.vector"))
+}
+
 tasks {
+    named<JavaCompile>(vector.compileJavaTaskName) {
+        options.compilerArgs.add("--add-modules=jdk.incubator.vector")
+    }
+    jar {
+        from(vector.output)
+    }
     withType<Test> {
         exclude("**/*")
         useJUnitPlatform()
     }
     shadowJar {
+        from(vector.output)
         val base = "io.github.pulsebeat02.ezmediacore.lib"
         relocate("uk.co.caprica", "$base.caprica")
         relocate("com.github.kiulian", "$base.kiulian")
@@ -0,0 +1,54 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.benchmark;
+
+import java.util.SplittableRandom;
+import org.jetbrains.annotations.NotNull;
+
+final class BenchmarkFrames {
+
+  private BenchmarkFrames() {}
+
+  static int @NotNull [] createFrame(final int width, final int height) {
+    final int[] frame = new int[width * height];
+    final SplittableRandom random = new SplittableRandom(width * 31L + height);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        final int red = x * 255 / width;
+        final int green = y * 255 / height;
+        final int blue = (red + green >> 1) + random.nextInt(-16, 17) & 0xFF;
+        frame[y * width + x] = 0xFF000000 | red << 16 | green << 8 | blue;
+      }
+    }
+    return frame;
+  }
+
+  static int getWidth(@NotNull final String resolution) {
+    return Integer.parseInt(resolution.substring(0, resolution.indexOf('x')));
+  }
+
+  static int getHeight(@NotNull final String resolution) {
+    return Integer.parseInt(resolution.substring(resolution.indexOf('x') + 1));
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.benchmark;
+
+import static io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered.BayerMatrices.CLUSTERED_DOT_DIAGONAL_16X16;
+import static io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered.BayerMatrices.CLUSTERED_DOT_DIAGONAL_16X16_MAX;
+import static io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered.BayerMatrices.NORMAL_2X2;
+import static io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered.BayerMatrices.NORMAL_2X2_MAX;
+import static io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered.BayerMatrices.NORMAL_4X4;
+import static io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered.BayerMatrices.NORMAL_4X4_MAX;
+import static io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered.BayerMatrices.NORMAL_8X8;
+import static io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered.BayerMatrices.NORMAL_8X8_MAX;
+import static io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered.BayerMatrices.createBayerMatrix;
+
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
+import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.DiffusionKernel;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.FilterLiteDither;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.FloydDither;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.WavefrontDither;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered.OrderedDither;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered.OrderedPixelMapper;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.random.RandomDither;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.simple.SimpleDither;
+import io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DitherBenchmark {
+
+  @Param({
+    "FILTER_LITE",
+    "FLOYD_STEINBERG",
+    "FILTER_LITE_PARALLEL",
+    "FLOYD_STEINBERG_PARALLEL",
+    "BAYER_2X2",
+    "BAYER_4X4",
+    "BAYER_8X8",
+    "BAYER_16X16",
+    "CLUSTERED_DOT_DIAGONAL_16X16",
+    "RANDOM",
+    "SIMPLE"
+  })
+  public String algorithm;
+
+  @Param({"640x384", "1024x640", "1280x768", "1920x1152"})
+  public String resolution;
+
+  private DitherAlgorithm dither;
+  private int[] frame;
+  private int width;
+
+  @Setup
+  public void setup() {
+    DitherLookupUtil.init();
+    this.width = BenchmarkFrames.getWidth(this.resolution);
+    final int height = BenchmarkFrames.getHeight(this.resolution);
+    this.frame = BenchmarkFrames.createFrame(this.width, height);
+    this.dither = this.createAlgorithm(this.algorithm);
+  }
+
+  @Benchmark
+  public void ditherIntoMinecraft(final Blackhole blackhole) {
+    final BufferCarrier carrier = this.dither.ditherIntoMinecraft(this.frame, this.width);
+    blackhole.consume(carrier);
+    carrier.release();
+  }
+
+  private @NotNull DitherAlgorithm createAlgorithm(@NotNull final String name) {
+    return switch (name) {
+      case "FILTER_LITE" -> new FilterLiteDither();
+      case "FLOYD_STEINBERG" -> new FloydDither();
+      case "FILTER_LITE_PARALLEL" -> new WavefrontDither(DiffusionKernel.FILTER_LITE);
+      case "FLOYD_STEINBERG_PARALLEL" -> new WavefrontDither(DiffusionKernel.FLOYD_STEINBERG);
+      case "BAYER_2X2" -> ordered(NORMAL_2X2, NORMAL_2X2_MAX);
+      case "BAYER_4X4" -> ordered(NORMAL_4X4, NORMAL_4X4_MAX);
+      case "BAYER_8X8" -> ordered(NORMAL_8X8, NORMAL_8X8_MAX);
+      case "BAYER_16X16" -> ordered(createBayerMatrix(16, 16), 16 * 16);
+      case "CLUSTERED_DOT_DIAGONAL_16X16" ->
+          ordered(CLUSTERED_DOT_DIAGONAL_16X16, CLUSTERED_DOT_DIAGONAL_16X16_MAX);
+      case "RANDOM" -> new RandomDither(RandomDither.NORMAL_WEIGHT);
+      case "SIMPLE" -> new SimpleDither();
+      default -> throw new IllegalArgumentException("Unknown algorithm %s!".formatted(name));
+    };
+  }
+
+  private static @NotNull OrderedDither ordered(final int[][] matrix, final int max) {
+    return new OrderedDither(OrderedPixelMapper.ofPixelMapper(matrix, max, 0.005f));
+  }
+}
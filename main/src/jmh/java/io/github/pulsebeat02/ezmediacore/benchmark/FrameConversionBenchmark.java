@@ -0,0 +1,69 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.benchmark;
+
+import io.github.pulsebeat02.ezmediacore.utility.graphics.VideoFrameUtils;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FrameConversionBenchmark {
+
+  @Param({"640x384", "1280x768", "1920x1152"})
+  public String resolution;
+
+  /** The image types produced by the Jaffree (3 byte BGR) and JCodec (int RGB) decoders. */
+  @Param({"5", "1"})
+  public int imageType;
+
+  private BufferedImage image;
+
+  @Setup
+  public void setup() {
+    final int width = BenchmarkFrames.getWidth(this.resolution);
+    final int height = BenchmarkFrames.getHeight(this.resolution);
+    this.image = new BufferedImage(width, height, this.imageType);
+    this.image.setRGB(0, 0, width, height, BenchmarkFrames.createFrame(width, height), 0, width);
+  }
+
+  @Benchmark
+  public int[] getRGBParallel() {
+    return VideoFrameUtils.getRGBParallel(this.image);
+  }
+
+  @Benchmark
+  public int[] getBuffer() {
+    return VideoFrameUtils.getBuffer(this.image);
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.benchmark;
+
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered.BayerMatrices;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered.OrderedDither;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered.OrderedPixelMapper;
+import io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil;
+import io.github.pulsebeat02.ezmediacore.utility.graphics.MapUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the tile splitting loop of {@code PacketHandler#displayMaps}, which copies a dithered
+ * frame into one array per map before the packets are built.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MapSplitBenchmark {
+
+  /** Screen size in maps. */
+  @Param({"5x3", "8x5", "10x6"})
+  public String screen;
+
+  private BufferCarrier frame;
+  private byte[] tile;
+  private int width;
+  private int height;
+  private int videoWidth;
+
+  @Setup
+  public void setup() {
+    DitherLookupUtil.init();
+    this.width = BenchmarkFrames.getWidth(this.screen);
+    this.height = BenchmarkFrames.getHeight(this.screen);
+    this.videoWidth = this.width << 7;
+    this.tile = new byte[128 * 128];
+    final int videoHeight = this.height << 7;
+    this.frame =
+        new OrderedDither(
+                OrderedPixelMapper.ofPixelMapper(
+                    BayerMatrices.NORMAL_4X4, BayerMatrices.NORMAL_4X4_MAX, 0.005f))
+            .ditherIntoMinecraft(
+                BenchmarkFrames.createFrame(this.videoWidth, videoHeight), this.videoWidth);
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.frame.release();
+  }
+
+  @Benchmark
+  public void split(final Blackhole blackhole) {
+    final int videoWidth = this.videoWidth;
+    final int vidHeight = this.frame.getCapacity() / videoWidth;
+    final int xOff = ((this.width << 7) - videoWidth) >> 1;
+    final int yOff = ((this.height << 7) - vidHeight) >> 1;
+    final int negXOff = xOff + videoWidth;
+    final int negYOff = yOff + vidHeight;
+    final int xLoopMin = Math.max(0, xOff / 128);
+    final int yLoopMin = Math.max(0, yOff / 128);
+    final int xLoopMax = Math.min(this.width, (int) Math.ceil(negXOff / 128.0));
+    final int yLoopMax = Math.min(this.height, (int) Math.ceil(negYOff / 128.0));
+    for (int y = yLoopMin; y < yLoopMax; y++) {
+      final int relY = y << 7;
+      final int topY = Math.max(0, yOff - relY);
+      final int yDiff = Math.min(128 - topY, negYOff - (relY + topY));
+      for (int x = xLoopMin; x < xLoopMax; x++) {
+        final int relX = x << 7;
+        final int topX = Math.max(0, xOff - relX);
+        final int xDiff = Math.min(128 - topX, negXOff - (relX + topX));
+        MapUtils.copyTile(
+            this.frame, this.tile, videoWidth, xOff, yOff, relX, relY, topX, topY, xDiff, yDiff);
+        blackhole.consume(this.tile);
+      }
+    }
+  }
+}
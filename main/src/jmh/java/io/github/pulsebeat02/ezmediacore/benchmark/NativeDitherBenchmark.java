@@ -0,0 +1,97 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.benchmark;
+
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.NativelySupportedDitheringAlgorithm;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.FilterLiteDither;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.FloydDither;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.random.RandomDither;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.simple.SimpleDither;
+import io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil;
+import io.github.pulsebeat02.ezmediacore.natives.DitherLibC;
+import java.util.concurrent.TimeUnit;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares the Java and native ({@link DitherLibC}) paths of the natively supported algorithms.
+ * Requires the native dither library to be loadable, otherwise run with {@code -p useNative=false}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class NativeDitherBenchmark {
+
+  @Param({"FILTER_LITE", "FLOYD_STEINBERG", "RANDOM", "SIMPLE"})
+  public String algorithm;
+
+  @Param({"false", "true"})
+  public boolean useNative;
+
+  @Param({"1280x768"})
+  public String resolution;
+
+  private NativelySupportedDitheringAlgorithm dither;
+  private int[] frame;
+  private int width;
+
+  @Setup
+  public void setup() {
+    if (this.useNative && !DitherLibC.isSupported()) {
+      throw new IllegalStateException("Native dithering is not supported on this platform!");
+    }
+    DitherLookupUtil.init();
+    this.width = BenchmarkFrames.getWidth(this.resolution);
+    final int height = BenchmarkFrames.getHeight(this.resolution);
+    this.frame = BenchmarkFrames.createFrame(this.width, height);
+    this.dither = this.createAlgorithm(this.algorithm, this.useNative);
+  }
+
+  @Benchmark
+  public void ditherIntoMinecraft(final Blackhole blackhole) {
+    final BufferCarrier carrier = this.dither.ditherIntoMinecraft(this.frame, this.width);
+    blackhole.consume(carrier);
+    carrier.release();
+  }
+
+  private @NotNull NativelySupportedDitheringAlgorithm createAlgorithm(
+      @NotNull final String name, final boolean useNative) {
+    return switch (name) {
+      case "FILTER_LITE" -> new FilterLiteDither(useNative);
+      case "FLOYD_STEINBERG" -> new FloydDither(useNative);
+      case "RANDOM" -> new RandomDither(RandomDither.NORMAL_WEIGHT, useNative);
+      case "SIMPLE" -> new SimpleDither(useNative);
+      default -> throw new IllegalArgumentException("Unknown algorithm %s!".formatted(name));
+    };
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.benchmark;
+
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.DiffusionKernel;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.WavefrontDither;
+import io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+/** Measures how wavefront error diffusion scales with the amount of threads it may use. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class WavefrontBenchmark {
+
+  @Param({"FLOYD_STEINBERG", "FILTER_LITE"})
+  public String kernel;
+
+  @Param({"1", "2", "4", "8", "12", "16"})
+  public int threads;
+
+  @Param({"1280x768"})
+  public String resolution;
+
+  private ForkJoinPool pool;
+  private WavefrontDither dither;
+  private int[] frame;
+  private int width;
+
+  @Setup
+  public void setup() {
+    DitherLookupUtil.init();
+    this.width = BenchmarkFrames.getWidth(this.resolution);
+    final int height = BenchmarkFrames.getHeight(this.resolution);
+    this.frame = BenchmarkFrames.createFrame(this.width, height);
+    this.pool = new ForkJoinPool(this.threads);
+    this.dither =
+        new WavefrontDither(DiffusionKernel.valueOf(this.kernel), this.pool, this.threads);
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.pool.shutdown();
+  }
+
+  @Benchmark
+  public void ditherIntoMinecraft(final Blackhole blackhole) {
+    final BufferCarrier carrier = this.dither.ditherIntoMinecraft(this.frame, this.width);
+    blackhole.consume(carrier);
+    carrier.release();
+  }
+}
@@ -136,12 +136,17 @@ public final class EzMediaCore implements MediaLibraryCore {
   }
 
   private void initProviders() {
-    DitherLookupUtil.init();
+    DitherLookupUtil.init(this.getLookupCachePath());
     StringSearch.init();
     SpotifyProvider.init(this);
     this.logger.info(Locale.FINISHED_LOOKUP_CACHE.build());
   }
 
+  private @NotNull Path getLookupCachePath() {
+    final String folder = System.getProperty("ezmediacore.lookup.folder");
+    return folder == null ? this.libraryPath.resolve("lookup") : Path.of(folder);
+  }
+
   private void initStream() {
     IntStream.range(0, 50).parallel().forEach(key -> {}); // jump start int stream
   }
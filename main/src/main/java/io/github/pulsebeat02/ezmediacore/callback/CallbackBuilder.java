@@ -32,7 +32,8 @@ import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
 public abstract sealed class CallbackBuilder permits BlockHighlightCallback.Builder,
-    ChatCallback.Builder, EntityCallback.Builder, MapCallback.Builder, Builder {
+    ChatCallback.Builder, CompositeCallback.Builder, EntityCallback.Builder, MapCallback.Builder,
+    MediaSource.Builder, Builder {
 
   private DelayConfiguration delay;
   private Dimension dims;
@@ -53,6 +54,11 @@ public abstract sealed class CallbackBuilder permits BlockHighlightCallback.Buil
     return new ChatCallback.Builder();
   }
 
+  @Contract(value = " -> new", pure = true)
+  public static @NotNull CompositeCallback.Builder composite() {
+    return new CompositeCallback.Builder();
+  }
+
   @Contract(value = " -> new", pure = true)
   public static @NotNull <T extends Entity> EntityCallback.Builder<T> entity() {
     return new EntityCallback.Builder<>();
@@ -63,6 +69,11 @@ public abstract sealed class CallbackBuilder permits BlockHighlightCallback.Buil
     return new MapCallback.Builder();
   }
 
+  @Contract(value = " -> new", pure = true)
+  public static @NotNull MediaSource.Builder source() {
+    return new MediaSource.Builder();
+  }
+
   @Contract(value = " -> new", pure = true)
   public static @NotNull ScoreboardCallback.Builder scoreboard() {
     return new Builder();
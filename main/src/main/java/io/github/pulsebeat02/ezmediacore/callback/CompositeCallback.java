@@ -0,0 +1,120 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.callback;
+
+import io.github.pulsebeat02.ezmediacore.MediaLibraryCore;
+import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
+import java.util.ArrayList;
+import java.util.List;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Runs several callbacks built from their own builders off a single frame. Work shared by the
+ * children, such as scaling to a common resolution or dithering for map callbacks using the same
+ * algorithm, is done once per frame. Every child still throttles by its own delay.
+ */
+public final class CompositeCallback extends MediaSource {
+
+  CompositeCallback(
+      @NotNull final MediaLibraryCore core,
+      @NotNull final Viewers viewers,
+      @NotNull final Dimension dimension,
+      @NotNull final DelayConfiguration delay,
+      @NotNull final List<Output> outputs) {
+    super(core, viewers, dimension, delay, outputs);
+  }
+
+  public static final class Builder extends CallbackBuilder {
+
+    private final List<Child> children;
+
+    public Builder() {
+      this.children = new ArrayList<>();
+    }
+
+    @Contract("_ -> this")
+    @Override
+    public @NotNull Builder delay(@NotNull final DelayConfiguration delay) {
+      super.delay(delay);
+      return this;
+    }
+
+    @Contract("_ -> this")
+    @Override
+    public @NotNull Builder dims(@NotNull final Dimension dims) {
+      super.dims(dims);
+      return this;
+    }
+
+    @Contract("_ -> this")
+    @Override
+    public @NotNull Builder viewers(@NotNull final Viewers viewers) {
+      super.viewers(viewers);
+      return this;
+    }
+
+    /**
+     * Adds a child which receives the frames at the resolution of this callback.
+     *
+     * @param builder the builder of the child
+     * @return the builder
+     */
+    @Contract("_ -> this")
+    public @NotNull Builder child(@NotNull final CallbackBuilder builder) {
+      this.children.add(new Child(builder, null));
+      return this;
+    }
+
+    /**
+     * Adds a child which receives the frames scaled to the given resolution.
+     *
+     * @param builder the builder of the child
+     * @param resolution the pixel resolution the child expects
+     * @return the builder
+     */
+    @Contract("_, _ -> this")
+    public @NotNull Builder child(
+        @NotNull final CallbackBuilder builder, @NotNull final Dimension resolution) {
+      this.children.add(new Child(builder, resolution));
+      return this;
+    }
+
+    @Override
+    public @NotNull FrameCallback build(@NotNull final MediaLibraryCore core) {
+      final List<Output> outputs = new ArrayList<>(this.children.size());
+      for (final Child child : this.children) {
+        final Dimension resolution = child.resolution();
+        outputs.add(
+            new Output(
+                child.builder().build(core), resolution == null ? this.getDims() : resolution));
+      }
+      return new CompositeCallback(
+          core, this.getViewers(), this.getDims(), this.getDelay(), outputs);
+    }
+
+    private record Child(@NotNull CallbackBuilder builder, @Nullable Dimension resolution) {}
+  }
+}
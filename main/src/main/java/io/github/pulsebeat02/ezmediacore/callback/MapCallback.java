@@ -27,19 +27,32 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
 import io.github.pulsebeat02.ezmediacore.MediaLibraryCore;
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
 import io.github.pulsebeat02.ezmediacore.callback.implementation.MapCallbackDispatcher;
+import io.github.pulsebeat02.ezmediacore.callback.quality.QualityController;
+import io.github.pulsebeat02.ezmediacore.callback.quality.QualityLevel;
+import io.github.pulsebeat02.ezmediacore.callback.quality.QualityStage;
 import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
 import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
 import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.FilterLiteDither;
+import io.github.pulsebeat02.ezmediacore.dither.buffer.ByteBufCarrier;
+import io.github.pulsebeat02.ezmediacore.dither.buffer.DitherBuffers;
+import io.netty.buffer.ByteBuf;
 import java.util.UUID;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-public class MapCallback extends FrameCallback implements MapCallbackDispatcher {
+public class MapCallback extends FrameCallback
+    implements MapCallbackDispatcher, PreparedCallback {
 
   private final DitherAlgorithm algorithm;
   private final int map;
   private final int blockWidth;
+  private final PreparationKey key;
+  private final QualityController quality;
+  private int[] scaled;
+  private byte[] indices;
 
   MapCallback(
       @NotNull final MediaLibraryCore core,
@@ -48,13 +61,18 @@ public class MapCallback extends FrameCallback implements MapCallbackDispatcher
       @NotNull final DitherAlgorithm algorithm,
       @NotNull final Identifier<Integer> map,
       @NotNull final DelayConfiguration delay,
-      final int blockWidth) {
+      final int blockWidth,
+      @Nullable final QualityController quality) {
     super(core, viewers, dimension, delay);
     checkArgument(map.getValue() >= 0, "Map id must be greater than or equal to 0!");
     checkNotNull(algorithm, "Algorithm cannot be null!");
     this.algorithm = algorithm;
     this.map = map.getValue();
     this.blockWidth = blockWidth;
+    this.key = new PreparationKey(algorithm, blockWidth, 1);
+    this.quality = quality;
+    this.scaled = new int[0];
+    this.indices = new byte[0];
   }
 
   @Override
@@ -62,25 +80,133 @@ public class MapCallback extends FrameCallback implements MapCallbackDispatcher
     final long time = System.currentTimeMillis();
     final Dimension dimension = this.getDimensions();
     final UUID[] viewers = this.getWatchers().getViewers();
-    if (time - this.getLastUpdated() >= this.getDelayConfiguration().getDelay()) {
+    if (time - this.getLastUpdated() >= this.getDelay()) {
       this.setLastUpdated(time);
       this.displayMaps(viewers, dimension, data);
     }
   }
 
+  private long getDelay() {
+    final long delay = this.getDelayConfiguration().getDelay();
+    return this.quality == null ? delay : Math.max(delay, this.quality.getLevel().interval());
+  }
+
+  @Override
+  public int getPreparedLength(final int pixels) {
+    return pixels;
+  }
+
+  @Override
+  public void prepare(final int @NotNull [] data, final byte @NotNull [] output) {
+    final BufferCarrier carrier = this.dither(data);
+    try {
+      carrier.getBytes(output);
+    } finally {
+      carrier.release();
+    }
+  }
+
+  @Override
+  public void present(final byte @NotNull [] prepared) {
+    final long time = System.currentTimeMillis();
+    if (time - this.getLastUpdated() >= this.getDelay()) {
+      this.setLastUpdated(time);
+      this.sendMaps(
+          this.getWatchers().getViewers(),
+          this.getDimensions(),
+          ByteBufCarrier.ofByteArray(prepared));
+    }
+  }
+
+  @Override
+  public @NotNull Object getPreparationKey() {
+    if (this.quality == null) {
+      return this.key;
+    }
+    final QualityLevel level = this.quality.getLevel();
+    return new PreparationKey(level.algorithm(), this.blockWidth, level.scale());
+  }
+
   private void displayMaps(
       @NotNull final UUID[] viewers,
       @NotNull final Dimension dimension,
       final int @NotNull [] data) {
+    this.sendMaps(viewers, dimension, this.dither(data));
+  }
+
+  private @NotNull BufferCarrier dither(final int @NotNull [] data) {
+    if (this.quality == null) {
+      return this.algorithm.ditherIntoMinecraft(data, this.blockWidth);
+    }
+    final long start = System.nanoTime();
+    final QualityLevel level = this.quality.getLevel();
+    final BufferCarrier carrier =
+        level.scale() == 1
+            ? level.algorithm().ditherIntoMinecraft(data, this.blockWidth)
+            : this.ditherScaled(data, level.algorithm(), level.scale());
+    this.quality.record(QualityStage.DITHER, System.nanoTime() - start);
+    return carrier;
+  }
+
+  /**
+   * Dithers every {@code scale}-th pixel of every {@code scale}-th row and repeats each dithered
+   * pixel over the block it was sampled from.
+   */
+  private @NotNull BufferCarrier ditherScaled(
+      final int @NotNull [] data, @NotNull final DitherAlgorithm algorithm, final int scale) {
     final int width = this.blockWidth;
-    this.getPacketHandler()
-        .displayMaps(
-            viewers,
-            this.algorithm.ditherIntoMinecraft(data, width),
-            this.map,
-            dimension.getHeight(),
-            dimension.getWidth(),
-            width);
+    final int height = data.length / width;
+    final int scaledWidth = (width + scale - 1) / scale;
+    final int scaledHeight = (height + scale - 1) / scale;
+    final int length = scaledWidth * scaledHeight;
+    if (this.scaled.length != length) {
+      this.scaled = new int[length];
+      this.indices = new byte[length];
+    }
+    final int[] scaled = this.scaled;
+    for (int y = 0; y < scaledHeight; y++) {
+      final int row = y * scale * width;
+      final int scaledRow = y * scaledWidth;
+      for (int x = 0; x < scaledWidth; x++) {
+        scaled[scaledRow + x] = data[row + x * scale];
+      }
+    }
+    final BufferCarrier carrier = algorithm.ditherIntoMinecraft(scaled, scaledWidth);
+    try {
+      carrier.getBytes(this.indices);
+    } finally {
+      carrier.release();
+    }
+    final ByteBuf output = DitherBuffers.allocate(data.length);
+    final byte[] array = output.array();
+    final int offset = output.arrayOffset();
+    for (int y = 0; y < height; y++) {
+      final int row = offset + y * width;
+      final int scaledRow = y / scale * scaledWidth;
+      for (int x = 0; x < width; x++) {
+        array[row + x] = this.indices[scaledRow + x / scale];
+      }
+    }
+    output.writerIndex(data.length);
+    return ByteBufCarrier.ofByteBufCarrier(output);
+  }
+
+  private void sendMaps(
+      @NotNull final UUID[] viewers,
+      @NotNull final Dimension dimension,
+      @NotNull final BufferCarrier carrier) {
+    final int width = this.blockWidth;
+    final long start = System.nanoTime();
+    try {
+      this.getPacketHandler()
+          .displayMaps(
+              viewers, carrier, this.map, dimension.getHeight(), dimension.getWidth(), width);
+    } finally {
+      carrier.release();
+    }
+    if (this.quality != null) {
+      this.quality.record(QualityStage.SEND, System.nanoTime() - start);
+    }
   }
 
   @Override
@@ -93,11 +219,24 @@ public class MapCallback extends FrameCallback implements MapCallbackDispatcher
     return this.algorithm;
   }
 
+  /**
+   * Gets the controller adapting the quality of this callback.
+   *
+   * @return the controller, or null if the quality is fixed
+   */
+  public @Nullable QualityController getQualityController() {
+    return this.quality;
+  }
+
+  /** Compares the algorithm by equality, so separate instances configured alike share a frame. */
+  private record PreparationKey(@NotNull DitherAlgorithm algorithm, int width, int scale) {}
+
   public static final class Builder extends CallbackBuilder {
 
     private DitherAlgorithm algorithm = new FilterLiteDither();
     private Identifier<Integer> map = Identifier.ofIdentifier(0);
     private int blockWidth;
+    private QualityController quality;
 
     public Builder() {}
 
@@ -140,6 +279,12 @@ public class MapCallback extends FrameCallback implements MapCallbackDispatcher
       return this;
     }
 
+    @Contract("_ -> this")
+    public @NotNull Builder quality(@Nullable final QualityController quality) {
+      this.quality = quality;
+      return this;
+    }
+
     @Override
     public @NotNull FrameCallback build(@NotNull final MediaLibraryCore core) {
       return new MapCallback(
@@ -149,7 +294,8 @@ public class MapCallback extends FrameCallback implements MapCallbackDispatcher
           this.algorithm,
           this.map,
           this.getDelay(),
-          this.blockWidth);
+          this.blockWidth,
+          this.quality);
     }
   }
 }
@@ -0,0 +1,294 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.callback;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.github.pulsebeat02.ezmediacore.MediaLibraryCore;
+import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
+import io.github.pulsebeat02.ezmediacore.player.PlayerControls;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Lets a single player feed several callbacks. The player decodes the video once at the
+ * resolution of the source, and every frame is scaled to each distinct output resolution once
+ * before it is passed to all outputs using that resolution. Each output keeps its own dimension,
+ * viewers, dither algorithm and delay.
+ *
+ * <p>Outputs which are a {@link PreparedCallback} with equal preparation keys and resolutions,
+ * such as map callbacks using the same algorithm, share a single prepared frame. Outputs that are
+ * not due according to their own delay are skipped before any work is done for them.
+ */
+public class MediaSource extends FrameCallback {
+
+  private final List<Output> outputs;
+  private final Long2ObjectMap<Resolution> resolutions;
+
+  MediaSource(
+      @NotNull final MediaLibraryCore core,
+      @NotNull final Viewers viewers,
+      @NotNull final Dimension dimension,
+      @NotNull final DelayConfiguration delay,
+      @NotNull final List<Output> outputs) {
+    super(core, viewers, dimension, delay);
+    this.outputs = new CopyOnWriteArrayList<>();
+    this.resolutions = new Long2ObjectOpenHashMap<>();
+    outputs.forEach(output -> this.addOutput(output.callback(), output.resolution()));
+  }
+
+  @Override
+  public void process(final int[] data) {
+    final long time = System.currentTimeMillis();
+    if (time - this.getLastUpdated() < this.getDelayConfiguration().getDelay()) {
+      return;
+    }
+    this.setLastUpdated(time);
+    final Dimension source = this.getDimensions();
+    synchronized (this.resolutions) {
+      for (final Resolution resolution : this.resolutions.values()) {
+        resolution.invalidate();
+      }
+      for (final Output output : this.outputs) {
+        final Callback callback = output.callback();
+        if (time - callback.getLastUpdated() < callback.getDelayConfiguration().getDelay()) {
+          continue;
+        }
+        final Resolution resolution = this.resolutions.get(getKey(output.resolution()));
+        final int[] frame = resolution.scale(data, source);
+        if (callback instanceof PreparedCallback prepared) {
+          prepared.present(resolution.prepare(prepared, frame));
+        } else {
+          callback.process(frame);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void preparePlayerStateChange(@NotNull final PlayerControls status) {
+    for (final Output output : this.outputs) {
+      output.callback().preparePlayerStateChange(status);
+    }
+  }
+
+  /**
+   * Adds an output, which receives the frames of this source scaled to the given resolution.
+   *
+   * @param callback the callback to pass the frames to
+   * @param resolution the pixel resolution the callback expects
+   */
+  public void addOutput(@NotNull final Callback callback, @NotNull final Dimension resolution) {
+    checkNotNull(callback, "Callback cannot be null!");
+    checkNotNull(resolution, "Resolution cannot be null!");
+    checkArgument(
+        resolution.getWidth() > 0 && resolution.getHeight() > 0,
+        "Resolution must be greater than 0!");
+    synchronized (this.resolutions) {
+      this.resolutions.computeIfAbsent(getKey(resolution), key -> new Resolution(resolution));
+      this.outputs.add(new Output(callback, resolution));
+    }
+  }
+
+  /**
+   * Removes every output which uses the given callback.
+   *
+   * @param callback the callback to remove
+   */
+  public void removeOutput(@NotNull final Callback callback) {
+    synchronized (this.resolutions) {
+      this.outputs.removeIf(output -> output.callback() == callback);
+      final LongIterator iterator = this.resolutions.keySet().iterator();
+      while (iterator.hasNext()) {
+        if (!this.isUsed(iterator.nextLong())) {
+          iterator.remove();
+        }
+      }
+      for (final Resolution resolution : this.resolutions.values()) {
+        resolution.prepared.clear();
+      }
+    }
+  }
+
+  private boolean isUsed(final long key) {
+    for (final Output output : this.outputs) {
+      if (getKey(output.resolution()) == key) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public @NotNull List<Output> getOutputs() {
+    return List.copyOf(this.outputs);
+  }
+
+  private static long getKey(@NotNull final Dimension dimension) {
+    return (long) dimension.getWidth() << 32 | dimension.getHeight();
+  }
+
+  public record Output(@NotNull Callback callback, @NotNull Dimension resolution) {}
+
+  /**
+   * A resolution shared by one or more outputs. The scaled frame and every prepared frame are
+   * computed at most once per source frame, and their arrays are reused for the following frames.
+   */
+  private static final class Resolution {
+
+    private final int width;
+    private final int height;
+    private final int[] frame;
+    private final Map<Object, PreparedFrame> prepared;
+    private int[] columns;
+    private int[] rows;
+    private int sourceWidth;
+    private int sourceHeight;
+    private boolean scaled;
+
+    Resolution(@NotNull final Dimension dimension) {
+      this.width = dimension.getWidth();
+      this.height = dimension.getHeight();
+      this.frame = new int[this.width * this.height];
+      this.prepared = new HashMap<>();
+    }
+
+    void invalidate() {
+      this.scaled = false;
+      for (final PreparedFrame frame : this.prepared.values()) {
+        frame.valid = false;
+      }
+    }
+
+    byte @NotNull [] prepare(
+        @NotNull final PreparedCallback callback, final int @NotNull [] frame) {
+      final PreparedFrame prepared =
+          this.prepared.computeIfAbsent(callback.getPreparationKey(), key -> new PreparedFrame());
+      if (!prepared.valid) {
+        final int length = callback.getPreparedLength(frame.length);
+        if (prepared.bytes.length != length) {
+          prepared.bytes = new byte[length];
+        }
+        callback.prepare(frame, prepared.bytes);
+        prepared.valid = true;
+      }
+      return prepared.bytes;
+    }
+
+    int @NotNull [] scale(final int @NotNull [] data, @NotNull final Dimension source) {
+      final int sourceWidth = source.getWidth();
+      final int sourceHeight = data.length / sourceWidth;
+      if (sourceWidth == this.width && sourceHeight == this.height) {
+        return data;
+      }
+      if (!this.scaled) {
+        this.updateTables(sourceWidth, sourceHeight);
+        final int[] columns = this.columns;
+        final int[] frame = this.frame;
+        for (int y = 0; y < this.height; y++) {
+          final int row = this.rows[y];
+          final int offset = y * this.width;
+          for (int x = 0; x < this.width; x++) {
+            frame[offset + x] = data[row + columns[x]];
+          }
+        }
+        this.scaled = true;
+      }
+      return this.frame;
+    }
+
+    private void updateTables(final int sourceWidth, final int sourceHeight) {
+      if (this.sourceWidth == sourceWidth && this.sourceHeight == sourceHeight) {
+        return;
+      }
+      this.sourceWidth = sourceWidth;
+      this.sourceHeight = sourceHeight;
+      this.columns = new int[this.width];
+      for (int x = 0; x < this.width; x++) {
+        this.columns[x] = (int) ((x + 0.5) * sourceWidth / this.width);
+      }
+      this.rows = new int[this.height];
+      for (int y = 0; y < this.height; y++) {
+        this.rows[y] = (int) ((y + 0.5) * sourceHeight / this.height) * sourceWidth;
+      }
+    }
+  }
+
+  private static final class PreparedFrame {
+
+    private byte[] bytes = new byte[0];
+    private boolean valid;
+  }
+
+  public static final class Builder extends CallbackBuilder {
+
+    private final List<Output> outputs;
+
+    public Builder() {
+      this.outputs = new ArrayList<>();
+    }
+
+    @Contract("_ -> this")
+    @Override
+    public @NotNull Builder delay(@NotNull final DelayConfiguration delay) {
+      super.delay(delay);
+      return this;
+    }
+
+    @Contract("_ -> this")
+    @Override
+    public @NotNull Builder dims(@NotNull final Dimension dims) {
+      super.dims(dims);
+      return this;
+    }
+
+    @Contract("_ -> this")
+    @Override
+    public @NotNull Builder viewers(@NotNull final Viewers viewers) {
+      super.viewers(viewers);
+      return this;
+    }
+
+    @Contract("_, _ -> this")
+    public @NotNull Builder output(
+        @NotNull final Callback callback, @NotNull final Dimension resolution) {
+      this.outputs.add(new Output(callback, resolution));
+      return this;
+    }
+
+    @Override
+    public @NotNull FrameCallback build(@NotNull final MediaLibraryCore core) {
+      return new MediaSource(
+          core, this.getViewers(), this.getDims(), this.getDelay(), this.outputs);
+    }
+  }
+}
@@ -0,0 +1,250 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.callback.quality;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.github.pulsebeat02.ezmediacore.MediaLibraryCore;
+import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.FilterLiteDither;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.FloydDither;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.WavefrontDither;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered.BayerMatrices;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered.OrderedDither;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered.OrderedPixelMapper;
+import io.github.pulsebeat02.ezmediacore.locale.Locale;
+import io.github.pulsebeat02.ezmediacore.player.FrameConfiguration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Lowers the quality of a screen while it costs more than its budget, and raises it again once
+ * there is headroom. The time spent in each {@link QualityStage} and the server's tick rate are
+ * sampled once a second. Each step down first replaces error diffusion with ordered dithering,
+ * then halves the frame rate, then halves the resolution.
+ *
+ * <p>A step down needs two strained seconds in a row, while a step up needs ten healthy seconds
+ * at less than half of the budget, so the quality does not flip back and forth at the border.
+ */
+public final class QualityController implements Runnable {
+
+  public static final double DEFAULT_BUDGET = 0.75;
+
+  private static final double LOW_TPS = 18.0;
+  private static final double HIGH_TPS = 19.5;
+  private static final double HEADROOM = 0.5;
+  private static final int DOWN_WINDOWS = 2;
+  private static final int UP_WINDOWS = 10;
+  private static final int IDLE_WINDOWS = 10;
+  private static final int WINDOW_TICKS = 20;
+
+  private final MediaLibraryCore core;
+  private final List<QualityLevel> levels;
+  private final double budget;
+  private final LongAdder[] stages;
+  private volatile int level;
+  private volatile BukkitTask task;
+  private volatile double tickNanos;
+
+  private long lastTick;
+  private long windowStart;
+  private int ticks;
+  private int strained;
+  private int healthy;
+  private int idle;
+
+  public QualityController(
+      @NotNull final MediaLibraryCore core,
+      @NotNull final DitherAlgorithm algorithm,
+      @NotNull final FrameConfiguration fps,
+      final double budget) {
+    checkNotNull(core, "MediaLibraryCore cannot be null!");
+    checkNotNull(algorithm, "Algorithm cannot be null!");
+    checkArgument(fps.getFps() > 0, "Frame rate must be greater than 0!");
+    checkArgument(budget > 0 && budget <= 1, "Budget must be between 0 and 1!");
+    this.core = core;
+    this.levels = this.createLevels(algorithm, fps.getFps());
+    this.budget = budget;
+    this.stages = new LongAdder[QualityStage.values().length];
+    for (int i = 0; i < this.stages.length; i++) {
+      this.stages[i] = new LongAdder();
+    }
+  }
+
+  @Contract("_, _, _ -> new")
+  public static @NotNull QualityController ofController(
+      @NotNull final MediaLibraryCore core,
+      @NotNull final DitherAlgorithm algorithm,
+      @NotNull final FrameConfiguration fps) {
+    return new QualityController(core, algorithm, fps, DEFAULT_BUDGET);
+  }
+
+  private @NotNull List<QualityLevel> createLevels(
+      @NotNull final DitherAlgorithm algorithm, final int fps) {
+    final List<QualityLevel> levels = new ArrayList<>();
+    levels.add(new QualityLevel(algorithm, fps, 1, 0));
+    DitherAlgorithm current = algorithm;
+    if (this.isErrorDiffusion(algorithm)) {
+      current =
+          new OrderedDither(
+              OrderedPixelMapper.ofPixelMapper(
+                  BayerMatrices.NORMAL_8X8, BayerMatrices.NORMAL_8X8_MAX, 0.005f));
+      levels.add(new QualityLevel(current, fps, 1, 0));
+    }
+    final int half = Math.max(fps >> 1, 1);
+    final long interval = half == fps ? 0 : 1000L / half - 500L / fps;
+    levels.add(new QualityLevel(current, half, 1, interval));
+    levels.add(new QualityLevel(current, half, 2, interval));
+    return List.copyOf(levels);
+  }
+
+  private boolean isErrorDiffusion(@NotNull final DitherAlgorithm algorithm) {
+    return algorithm instanceof FilterLiteDither
+        || algorithm instanceof FloydDither
+        || algorithm instanceof WavefrontDither;
+  }
+
+  /**
+   * Records the time a frame spent in a stage. The first sample starts sampling the tick rate,
+   * which stops again once nothing was recorded for a while.
+   *
+   * @param stage the stage
+   * @param nanos the time spent in nanoseconds
+   */
+  public void record(@NotNull final QualityStage stage, final long nanos) {
+    this.stages[stage.ordinal()].add(nanos);
+    if (this.task == null) {
+      this.start();
+    }
+  }
+
+  private synchronized void start() {
+    if (this.task == null) {
+      this.lastTick = 0;
+      this.ticks = 0;
+      this.idle = 0;
+      this.windowStart = System.nanoTime();
+      final Plugin plugin = this.core.getPlugin();
+      this.task = plugin.getServer().getScheduler().runTaskTimer(plugin, this, 1L, 1L);
+    }
+  }
+
+  public synchronized void stop() {
+    if (this.task != null) {
+      this.task.cancel();
+      this.task = null;
+    }
+  }
+
+  @Override
+  public void run() {
+    final long now = System.nanoTime();
+    if (this.lastTick != 0) {
+      final double interval = now - this.lastTick;
+      this.tickNanos =
+          this.tickNanos == 0 ? interval : this.tickNanos + (interval - this.tickNanos) * 0.05;
+    }
+    this.lastTick = now;
+    if (++this.ticks >= WINDOW_TICKS) {
+      this.ticks = 0;
+      this.evaluate(now);
+    }
+  }
+
+  private void evaluate(final long now) {
+    final long window = now - this.windowStart;
+    this.windowStart = now;
+    final long decode = this.stages[QualityStage.DECODE.ordinal()].sumThenReset();
+    final long dither = this.stages[QualityStage.DITHER.ordinal()].sumThenReset();
+    final long send = this.stages[QualityStage.SEND.ordinal()].sumThenReset();
+    if (decode + dither + send == 0) {
+      if (++this.idle >= IDLE_WINDOWS) {
+        this.stop();
+      }
+      return;
+    }
+    this.idle = 0;
+    final double load = Math.max(decode + dither, send) / (double) window;
+    final double tps = this.getTps();
+    if (load > this.budget || tps < LOW_TPS) {
+      this.healthy = 0;
+      if (++this.strained >= DOWN_WINDOWS) {
+        this.setLevel(this.level + 1);
+      }
+    } else if (load < this.budget * HEADROOM && tps >= HIGH_TPS) {
+      this.strained = 0;
+      if (++this.healthy >= UP_WINDOWS) {
+        this.setLevel(this.level - 1);
+      }
+    } else {
+      this.strained = 0;
+      this.healthy = 0;
+    }
+  }
+
+  private void setLevel(final int level) {
+    this.strained = 0;
+    this.healthy = 0;
+    final int clamped = Math.max(0, Math.min(level, this.levels.size() - 1));
+    if (clamped != this.level) {
+      this.level = clamped;
+      this.core
+          .getLogger()
+          .info(Locale.QUALITY_LEVEL_CHANGE.build(clamped, this.levels.get(clamped).toString()));
+    }
+  }
+
+  /**
+   * Gets the tick rate measured over the last few seconds.
+   *
+   * @return the ticks per second, at most 20
+   */
+  public double getTps() {
+    final double nanos = this.tickNanos;
+    return nanos == 0 ? 20.0 : Math.min(20.0, TimeUnit.SECONDS.toNanos(1) / nanos);
+  }
+
+  public @NotNull QualityLevel getLevel() {
+    return this.levels.get(this.level);
+  }
+
+  public int getLevelIndex() {
+    return this.level;
+  }
+
+  public @NotNull List<QualityLevel> getLevels() {
+    return this.levels;
+  }
+
+  public double getBudget() {
+    return this.budget;
+  }
+}
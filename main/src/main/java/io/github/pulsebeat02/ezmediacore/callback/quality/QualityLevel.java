@@ -0,0 +1,45 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.callback.quality;
+
+import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A step of the {@link QualityController}.
+ *
+ * @param algorithm the algorithm frames are dithered with
+ * @param fps the frame rate frames are sent at
+ * @param scale the factor the resolution is divided by before dithering
+ * @param interval the minimum time in milliseconds between two sent frames
+ */
+public record QualityLevel(
+    @NotNull DitherAlgorithm algorithm, int fps, int scale, long interval) {
+
+  @Override
+  public @NotNull String toString() {
+    return "%s at %s fps, 1/%s resolution"
+        .formatted(this.algorithm.getClass().getSimpleName(), this.fps, this.scale);
+  }
+}
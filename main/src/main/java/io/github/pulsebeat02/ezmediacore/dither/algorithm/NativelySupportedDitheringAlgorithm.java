@@ -4,6 +4,7 @@ import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
 import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
 import io.github.pulsebeat02.ezmediacore.dither.NativeDitherAlgorithm;
 import io.github.pulsebeat02.ezmediacore.natives.DitherLibC;
+import java.util.Objects;
 import java.util.function.BiFunction;
 import org.jetbrains.annotations.NotNull;
 
@@ -11,6 +12,7 @@ public abstract class NativelySupportedDitheringAlgorithm
     implements DitherAlgorithm, NativeDitherAlgorithm {
 
   private final BiFunction<int[], Integer, BufferCarrier> function;
+  private final boolean useNative;
 
   public NativelySupportedDitheringAlgorithm(final boolean useNative) {
     if (useNative && !DitherLibC.isSupported()) {
@@ -18,6 +20,7 @@ public abstract class NativelySupportedDitheringAlgorithm
           "Your current platform does not support native dithering!");
     }
     this.function = useNative ? this::ditherIntoMinecraftNatively : this::standardMinecraftDither;
+    this.useNative = useNative;
   }
 
   public NativelySupportedDitheringAlgorithm() {
@@ -31,4 +34,21 @@ public abstract class NativelySupportedDitheringAlgorithm
   public @NotNull BufferCarrier ditherIntoMinecraft(final int @NotNull [] buffer, final int width) {
     return this.function.apply(buffer, width);
   }
+
+  /**
+   * Algorithms of the same class and configuration are equal, because they produce the same
+   * indices for the same pixels. Subclasses with their own settings have to compare them as well.
+   */
+  @Override
+  public boolean equals(final Object obj) {
+    if (obj == null || obj.getClass() != this.getClass()) {
+      return false;
+    }
+    return ((NativelySupportedDitheringAlgorithm) obj).useNative == this.useNative;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.getClass(), this.useNative);
+  }
 }
@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.dither.algorithm.error;
+
+/**
+ * Error diffusion weights used by {@link WavefrontDither}. Each weight is applied as {@code error
+ * * weight >> shift}, so the results are exact integers and identical on every thread.
+ */
+public enum DiffusionKernel {
+
+  /*
+
+  Floyd Steinberg
+
+      *  7
+   3  5  1    (1/16)
+
+   */
+  FLOYD_STEINBERG(7, 3, 5, 1, 4),
+
+  /*
+
+  Simple Sierra 2-4A (Filter Lite)
+
+      *  2
+   1  1       (1/4)
+
+   */
+  FILTER_LITE(2, 1, 1, 0, 2);
+
+  private final int right;
+  private final int belowLeft;
+  private final int below;
+  private final int belowRight;
+  private final int shift;
+
+  DiffusionKernel(
+      final int right,
+      final int belowLeft,
+      final int below,
+      final int belowRight,
+      final int shift) {
+    this.right = right;
+    this.belowLeft = belowLeft;
+    this.below = below;
+    this.belowRight = belowRight;
+    this.shift = shift;
+  }
+
+  public int getRight() {
+    return this.right;
+  }
+
+  public int getBelowLeft() {
+    return this.belowLeft;
+  }
+
+  public int getBelow() {
+    return this.below;
+  }
+
+  public int getBelowRight() {
+    return this.belowRight;
+  }
+
+  public int getShift() {
+    return this.shift;
+  }
+}
@@ -25,13 +25,15 @@ package io.github.pulsebeat02.ezmediacore.dither.algorithm.error;
 
 import static io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil.COLOR_MAP;
 import static io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil.FULL_COLOR_MAP;
+import static io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil.ensureLoaded;
 
 import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
 import io.github.pulsebeat02.ezmediacore.dither.algorithm.NativelySupportedDitheringAlgorithm;
 import io.github.pulsebeat02.ezmediacore.dither.buffer.ByteBufCarrier;
+import io.github.pulsebeat02.ezmediacore.dither.buffer.DitherBuffers;
 import io.github.pulsebeat02.ezmediacore.natives.DitherLibC;
+import io.github.pulsebeat02.ezmediacore.natives.NativeDither;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import org.jetbrains.annotations.NotNull;
 
 public final class FilterLiteDither extends NativelySupportedDitheringAlgorithm {
@@ -52,10 +54,11 @@ public final class FilterLiteDither extends NativelySupportedDitheringAlgorithm
    */
   @Override
   public void dither(final int @NotNull [] buffer, final int width) {
+    ensureLoaded();
     final int height = buffer.length / width;
     final int widthMinus = width - 1;
     final int heightMinus = height - 1;
-    final int[][] dither_buffer = new int[2][width + width << 1];
+    final int[][] dither_buffer = DitherBuffers.getErrorRows(2, width + width << 1);
 
     /*
 
@@ -149,12 +152,13 @@ public final class FilterLiteDither extends NativelySupportedDitheringAlgorithm
 
   @Override
   public @NotNull BufferCarrier standardMinecraftDither(final int @NotNull [] buffer, final int width) {
+    ensureLoaded();
     final int length = buffer.length;
     final int height = length / width;
     final int widthMinus = width - 1;
     final int heightMinus = height - 1;
-    final int[][] dither_buffer = new int[2][width << 2];
-    final ByteBuf data = Unpooled.buffer(length);
+    final int[][] dither_buffer = DitherBuffers.getErrorRows(2, width << 2);
+    final ByteBuf data = DitherBuffers.allocate(length);
     for (int y = 0; y < height; y++) {
       final boolean hasNextY = y < heightMinus;
       final int yIndex = y * width;
@@ -242,10 +246,10 @@ public final class FilterLiteDither extends NativelySupportedDitheringAlgorithm
 
   @Override
   public @NotNull BufferCarrier ditherIntoMinecraftNatively(final int @NotNull [] buffer, final int width) {
-    return ByteBufCarrier.ofByteBufCarrier(
-        Unpooled.wrappedBuffer(
-            DitherLibC.INSTANCE
-                .filterLiteDither(FULL_COLOR_MAP, COLOR_MAP, buffer, width)
-                .getByteArray(0L, buffer.length)));
+    ensureLoaded();
+    return NativeDither.dither(
+        buffer,
+        (colors, fullColors, pixels) ->
+            DitherLibC.INSTANCE.filterLiteDither(colors, fullColors, pixels, width));
   }
 }
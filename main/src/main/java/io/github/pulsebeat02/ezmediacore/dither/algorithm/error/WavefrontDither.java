@@ -0,0 +1,270 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.dither.algorithm.error;
+
+import static io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil.COLOR_MAP;
+import static io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil.FULL_COLOR_MAP;
+import static io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil.ensureLoaded;
+
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
+import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.dither.buffer.ByteBufCarrier;
+import io.github.pulsebeat02.ezmediacore.dither.buffer.DitherBuffers;
+import io.netty.buffer.ByteBuf;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Error diffusion dithering that spreads rows over several threads in a lagged wavefront. A row
+ * may only process a pixel once the row above has finished the pixel diagonally to its right, so
+ * every pixel sees exactly the same accumulated error it would in a single threaded raster scan.
+ * The output is therefore byte-identical regardless of the parallelism used.
+ *
+ * <p>Unlike {@link FloydDither} and {@link FilterLiteDither}, rows are always scanned left to
+ * right and the errors pushed to the next row are accumulated. The serpentine scan of those
+ * algorithms chains every row to the end of the previous one, which leaves nothing to parallelize.
+ */
+public final class WavefrontDither implements DitherAlgorithm {
+
+  private static final int CHUNK_SIZE = 32;
+  private static final int SPIN_LIMIT = 256;
+
+  private final DiffusionKernel kernel;
+  private final ForkJoinPool pool;
+  private final int parallelism;
+
+  public WavefrontDither(
+      @NotNull final DiffusionKernel kernel,
+      @NotNull final ForkJoinPool pool,
+      final int parallelism) {
+    this.kernel = kernel;
+    this.pool = pool;
+    this.parallelism = Math.max(1, parallelism);
+  }
+
+  public WavefrontDither(@NotNull final DiffusionKernel kernel, @NotNull final ForkJoinPool pool) {
+    this(kernel, pool, pool.getParallelism());
+  }
+
+  public WavefrontDither(@NotNull final DiffusionKernel kernel) {
+    this(kernel, ForkJoinPool.commonPool());
+  }
+
+  public WavefrontDither() {
+    this(DiffusionKernel.FLOYD_STEINBERG);
+  }
+
+  @Override
+  public @NotNull BufferCarrier ditherIntoMinecraft(final int @NotNull [] buffer, final int width) {
+    ensureLoaded();
+    final ByteBuf data = DitherBuffers.allocate(buffer.length);
+    this.diffuse(buffer, width, data.array(), data.arrayOffset(), null);
+    return ByteBufCarrier.ofByteBufCarrier(data);
+  }
+
+  @Override
+  public void dither(final int @NotNull [] buffer, final int width) {
+    ensureLoaded();
+    this.diffuse(buffer, width, null, 0, buffer);
+  }
+
+  private void diffuse(
+      final int @NotNull [] buffer,
+      final int width,
+      final byte @Nullable [] indices,
+      final int offset,
+      final int @Nullable [] colors) {
+    final int height = buffer.length / width;
+    final int workers = Math.min(this.parallelism, height);
+    final int[][] errors = DitherBuffers.getErrorRows(workers + 2, (width + 2) * 3);
+    final Wavefront wavefront =
+        new Wavefront(this.kernel, buffer, width, height, errors, indices, offset, colors);
+    if (workers <= 1) {
+      wavefront.run();
+      return;
+    }
+    final ForkJoinTask<?>[] tasks = new ForkJoinTask<?>[workers - 1];
+    for (int i = 0; i < tasks.length; i++) {
+      tasks[i] = this.pool.submit(wavefront);
+    }
+    wavefront.run();
+    for (final ForkJoinTask<?> task : tasks) {
+      task.join();
+    }
+  }
+
+  public @NotNull DiffusionKernel getKernel() {
+    return this.kernel;
+  }
+
+  public int getParallelism() {
+    return this.parallelism;
+  }
+
+  /**
+   * Wavefront dithers with the same kernel are equal, because the amount of threads never changes
+   * the result.
+   */
+  @Override
+  public boolean equals(final Object obj) {
+    if (!(obj instanceof WavefrontDither)) {
+      return false;
+    }
+    return ((WavefrontDither) obj).kernel == this.kernel;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.kernel);
+  }
+
+  private static final class Wavefront implements Runnable {
+
+    private final int[] buffer;
+    private final int width;
+    private final int height;
+    private final byte[] indices;
+    private final int offset;
+    private final int[] colors;
+    private final int[][] errors;
+    private final AtomicInteger next;
+    private final AtomicIntegerArray progress;
+    private final int right;
+    private final int belowLeft;
+    private final int below;
+    private final int belowRight;
+    private final int shift;
+
+    private Wavefront(
+        @NotNull final DiffusionKernel kernel,
+        final int @NotNull [] buffer,
+        final int width,
+        final int height,
+        final int @NotNull [] @NotNull [] errors,
+        final byte @Nullable [] indices,
+        final int offset,
+        final int @Nullable [] colors) {
+      this.buffer = buffer;
+      this.width = width;
+      this.height = height;
+      this.indices = indices;
+      this.offset = offset;
+      this.colors = colors;
+      this.errors = errors;
+      this.next = new AtomicInteger();
+      this.progress = new AtomicIntegerArray(height);
+      this.right = kernel.getRight();
+      this.belowLeft = kernel.getBelowLeft();
+      this.below = kernel.getBelow();
+      this.belowRight = kernel.getBelowRight();
+      this.shift = kernel.getShift();
+    }
+
+    @Override
+    public void run() {
+      int y;
+      while ((y = this.next.getAndIncrement()) < this.height) {
+        this.processRow(y);
+      }
+    }
+
+    private void processRow(final int y) {
+      final int width = this.width;
+      final int rows = this.errors.length;
+      final int[] current = this.errors[y % rows];
+      final int[] below = this.errors[(y + 1) % rows];
+      final boolean hasNextY = y < this.height - 1;
+      if (hasNextY) {
+        final int previous = y + 1 - rows;
+        if (previous >= 0) {
+          this.await(previous, width);
+        }
+        Arrays.fill(below, 0);
+      }
+      final int yIndex = y * width;
+      int errRed = 0;
+      int errGreen = 0;
+      int errBlue = 0;
+      for (int start = 0; start < width; start += CHUNK_SIZE) {
+        final int end = Math.min(start + CHUNK_SIZE, width);
+        if (y > 0) {
+          this.await(y - 1, Math.min(end + 1, width));
+        }
+        for (int x = start; x < end; x++) {
+          final int e = (x + 1) * 3;
+          final int index = yIndex + x;
+          final int rgb = this.buffer[index];
+          int red = (rgb >> 16 & 0xFF) + current[e] + errRed;
+          int green = (rgb >> 8 & 0xFF) + current[e + 1] + errGreen;
+          int blue = (rgb & 0xFF) + current[e + 2] + errBlue;
+          red = red > 255 ? 255 : red < 0 ? 0 : red;
+          green = green > 255 ? 255 : green < 0 ? 0 : green;
+          blue = blue > 255 ? 255 : blue < 0 ? 0 : blue;
+          final int key = red >> 1 << 14 | green >> 1 << 7 | blue >> 1;
+          final int closest = FULL_COLOR_MAP[key];
+          final int deltaRed = red - (closest >> 16 & 0xFF);
+          final int deltaGreen = green - (closest >> 8 & 0xFF);
+          final int deltaBlue = blue - (closest & 0xFF);
+          errRed = deltaRed * this.right >> this.shift;
+          errGreen = deltaGreen * this.right >> this.shift;
+          errBlue = deltaBlue * this.right >> this.shift;
+          if (hasNextY) {
+            below[e - 3] += deltaRed * this.belowLeft >> this.shift;
+            below[e - 2] += deltaGreen * this.belowLeft >> this.shift;
+            below[e - 1] += deltaBlue * this.belowLeft >> this.shift;
+            below[e] += deltaRed * this.below >> this.shift;
+            below[e + 1] += deltaGreen * this.below >> this.shift;
+            below[e + 2] += deltaBlue * this.below >> this.shift;
+            below[e + 3] += deltaRed * this.belowRight >> this.shift;
+            below[e + 4] += deltaGreen * this.belowRight >> this.shift;
+            below[e + 5] += deltaBlue * this.belowRight >> this.shift;
+          }
+          if (this.indices != null) {
+            this.indices[this.offset + index] = COLOR_MAP[key];
+          } else {
+            this.colors[index] = closest;
+          }
+        }
+        this.progress.set(y, end);
+      }
+    }
+
+    private void await(final int row, final int pixels) {
+      int spins = 0;
+      while (this.progress.get(row) < pixels) {
+        if (++spins < SPIN_LIMIT) {
+          Thread.onSpinWait();
+        } else {
+          Thread.yield();
+        }
+      }
+    }
+  }
+}
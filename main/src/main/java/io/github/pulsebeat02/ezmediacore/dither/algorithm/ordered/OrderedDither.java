@@ -1,71 +1,127 @@
 package io.github.pulsebeat02.ezmediacore.dither.algorithm.ordered;
 
 import static io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil.COLOR_MAP;
+import static io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil.ensureLoaded;
 
 import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
 import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
 import io.github.pulsebeat02.ezmediacore.dither.MapPalette;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.vector.VectorDither;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.vector.VectorSupport;
 import io.github.pulsebeat02.ezmediacore.dither.buffer.ByteBufCarrier;
+import io.github.pulsebeat02.ezmediacore.dither.buffer.DitherBuffers;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import java.util.Arrays;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
 /** See https://github.com/makeworld-the-better-one/dither/blob/master/pixelmappers.go */
 public final class OrderedDither implements DitherAlgorithm {
 
-  private final float[][] precalc;
+  private static final boolean VECTORIZED;
+
+  static {
+    VECTORIZED = VectorSupport.isSupported();
+  }
+
+  private final int[][] matrix;
   private final int xdim;
   private final int ydim;
+  private volatile int[][] rows;
 
   @Contract(pure = true)
   public OrderedDither(@NotNull final OrderedPixelMapper mapper) {
-    this.precalc = mapper.getMatrix();
-    this.ydim = this.precalc.length;
-    this.xdim = this.precalc[0].length;
+    this.matrix = this.floorMatrix(mapper.getMatrix());
+    this.ydim = this.matrix.length;
+    this.xdim = this.matrix[0].length;
+    this.rows = new int[0][0];
   }
 
   @Override
   public @NotNull BufferCarrier ditherIntoMinecraft(final int @NotNull [] buffer, final int width) {
+    ensureLoaded();
     final int length = buffer.length;
     final int height = length / width;
-    final ByteBuf data = Unpooled.buffer(length);
-    for (int y = 0; y < height; y++) {
-      final int yIndex = y * width;
-      for (int x = 0; x < width; x++) {
-        final int index = yIndex + x;
-        final int color = buffer[index];
-        int r = color >> 16 & 0xFF;
-        int g = color >> 8 & 0xFF;
-        int b = color & 0xFF;
-        r = (r += this.precalc[y % this.ydim][x % this.xdim]) > 255 ? 255 : r < 0 ? 0 : r;
-        g = (g += this.precalc[y % this.ydim][x % this.xdim]) > 255 ? 255 : g < 0 ? 0 : g;
-        b = (b += this.precalc[y % this.ydim][x % this.xdim]) > 255 ? 255 : b < 0 ? 0 : b;
-        data.writeByte(this.getBestColor(r, g, b));
+    final int[][] rows = this.getThresholdRows(width);
+    final ByteBuf data = DitherBuffers.allocate(length);
+    final byte[] output = data.array();
+    final int offset = data.arrayOffset();
+    if (VECTORIZED) {
+      VectorDither.ordered(buffer, width, rows, COLOR_MAP, output, offset);
+    } else {
+      for (int y = 0; y < height; y++) {
+        final int[] row = rows[y % this.ydim];
+        final int yIndex = y * width;
+        for (int x = 0; x < width; x++) {
+          final int index = yIndex + x;
+          final int color = buffer[index];
+          final int threshold = row[x];
+          int r = (color >> 16 & 0xFF) + threshold;
+          int g = (color >> 8 & 0xFF) + threshold;
+          int b = (color & 0xFF) + threshold;
+          r = r > 255 ? 255 : r < 0 ? 0 : r;
+          g = g > 255 ? 255 : g < 0 ? 0 : g;
+          b = b > 255 ? 255 : b < 0 ? 0 : b;
+          output[offset + index] = this.getBestColor(r, g, b);
+        }
       }
     }
+    data.writerIndex(length);
     return ByteBufCarrier.ofByteBufCarrier(data);
   }
 
   @Override
   public void dither(final int @NotNull [] buffer, final int width) {
+    ensureLoaded();
     final int height = buffer.length / width;
+    final int[][] rows = this.getThresholdRows(width);
     for (int y = 0; y < height; y++) {
+      final int[] row = rows[y % this.ydim];
       final int yIndex = y * width;
       for (int x = 0; x < width; x++) {
         final int index = yIndex + x;
         final int color = buffer[index];
-        int r = color >> 16 & 0xFF;
-        int g = color >> 8 & 0xFF;
-        int b = color & 0xFF;
-        r = (r += this.precalc[y % this.ydim][x % this.xdim]) > 255 ? 255 : r < 0 ? 0 : r;
-        g = (g += this.precalc[y % this.ydim][x % this.xdim]) > 255 ? 255 : g < 0 ? 0 : g;
-        b = (b += this.precalc[y % this.ydim][x % this.xdim]) > 255 ? 255 : b < 0 ? 0 : b;
+        final int threshold = row[x];
+        int r = (color >> 16 & 0xFF) + threshold;
+        int g = (color >> 8 & 0xFF) + threshold;
+        int b = (color & 0xFF) + threshold;
+        r = r > 255 ? 255 : r < 0 ? 0 : r;
+        g = g > 255 ? 255 : g < 0 ? 0 : g;
+        b = b > 255 ? 255 : b < 0 ? 0 : b;
         buffer[index] = this.getBestColorNormal(r, g, b);
       }
     }
   }
 
+  /**
+   * Adding a fractional threshold to an integer channel and truncating is the same as adding the
+   * floor of the threshold once the result is clamped, so the matrix can be kept in integers.
+   */
+  private int @NotNull [] @NotNull [] floorMatrix(final float @NotNull [] @NotNull [] precalc) {
+    final int[][] matrix = new int[precalc.length][precalc[0].length];
+    for (int y = 0; y < matrix.length; y++) {
+      for (int x = 0; x < matrix[y].length; x++) {
+        matrix[y][x] = (int) Math.floor(precalc[y][x]);
+      }
+    }
+    return matrix;
+  }
+
+  private int @NotNull [] @NotNull [] getThresholdRows(final int width) {
+    int[][] rows = this.rows;
+    if (rows.length == 0 || rows[0].length != width) {
+      rows = new int[this.ydim][width];
+      for (int y = 0; y < this.ydim; y++) {
+        final int[] matrixRow = this.matrix[y];
+        for (int x = 0; x < width; x++) {
+          rows[y][x] = matrixRow[x % this.xdim];
+        }
+      }
+      this.rows = rows;
+    }
+    return rows;
+  }
+
   private byte getBestColor(final int red, final int green, final int blue) {
     return COLOR_MAP[red >> 1 << 14 | green >> 1 << 7 | blue >> 1];
   }
@@ -73,4 +129,17 @@ public final class OrderedDither implements DitherAlgorithm {
   private int getBestColorNormal(final int r, final int g, final int b) {
     return MapPalette.getColor(this.getBestColor(r, g, b)).getRGB();
   }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (!(obj instanceof OrderedDither)) {
+      return false;
+    }
+    return Arrays.deepEquals(((OrderedDither) obj).matrix, this.matrix);
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.deepHashCode(this.matrix);
+  }
 }
@@ -0,0 +1,190 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.dither.algorithm.palette;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
+import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.dither.MapPalette;
+import io.github.pulsebeat02.ezmediacore.dither.buffer.ByteBufCarrier;
+import io.github.pulsebeat02.ezmediacore.dither.buffer.DitherBuffers;
+import io.netty.buffer.ByteBuf;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import javax.imageio.ImageIO;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Leaves the dithering to the {@code paletteuse} filter of FFmpeg. Only the FFmpeg player supports
+ * it, by decoding into frames which already consist of map color indices, so this algorithm only
+ * narrows them to bytes. Frames of plain pixels are rejected with an {@link IllegalStateException}
+ * instead of being turned into garbage.
+ */
+public final class FFmpegPaletteDither implements DitherAlgorithm {
+
+  private static final String PALETTE_FILE;
+  private static final int PALETTE_SIZE;
+  private static final int[] PALETTE;
+
+  static {
+    PALETTE_FILE = "map-palette-%s.png".formatted(MapPalette.NMS_PALETTE.length);
+    PALETTE_SIZE = 16;
+    PALETTE = new int[MapPalette.NMS_PALETTE.length];
+    for (int i = 4; i < PALETTE.length; i++) {
+      PALETTE[i] = MapPalette.NMS_PALETTE[i].getRGB();
+    }
+  }
+
+  private final Mode mode;
+
+  public FFmpegPaletteDither(@NotNull final Mode mode) {
+    checkNotNull(mode, "Mode cannot be null!");
+    this.mode = mode;
+  }
+
+  public FFmpegPaletteDither() {
+    this(Mode.SIERRA2_4A);
+  }
+
+  /**
+   * Writes the map palette as an image which {@code paletteuse} accepts, unless it already
+   * exists. The filter requires exactly 256 colors, so the image is 16x16 and every index without
+   * a map color is left transparent, which keeps the filter from choosing it.
+   *
+   * @param folder the folder to write the palette into
+   * @return the path of the palette image
+   * @throws IOException if the image could not be written
+   */
+  public static synchronized @NotNull Path writePalette(@NotNull final Path folder)
+      throws IOException {
+    final Path path = folder.resolve(PALETTE_FILE);
+    if (Files.exists(path)) {
+      return path;
+    }
+    Files.createDirectories(folder);
+    final BufferedImage image =
+        new BufferedImage(PALETTE_SIZE, PALETTE_SIZE, BufferedImage.TYPE_INT_ARGB);
+    for (int i = 0; i < PALETTE.length; i++) {
+      image.setRGB(i % PALETTE_SIZE, i / PALETTE_SIZE, PALETTE[i]);
+    }
+    final Path temp = Files.createTempFile(folder, "palette", ".tmp");
+    try {
+      ImageIO.write(image, "png", temp.toFile());
+      Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+    return path;
+  }
+
+  /**
+   * Gets the map color index for an index produced by {@code paletteuse}. The palette image lists
+   * the map colors in their own order, so both indices are the same and only indices past the map
+   * colors have to be mapped.
+   *
+   * @param index the palette index
+   * @return the map color index, or 0 (transparent) if the index has no map color
+   */
+  public static int getMapIndex(final int index) {
+    return index < PALETTE.length ? index : 0;
+  }
+
+  @Override
+  public @NotNull BufferCarrier ditherIntoMinecraft(
+      final int @NotNull [] buffer, final int width) {
+    final int length = buffer.length;
+    final ByteBuf data = DitherBuffers.allocate(length);
+    final byte[] array = data.array();
+    final int offset = data.arrayOffset();
+    for (int i = 0; i < length; i++) {
+      final int index = buffer[i];
+      if (index < 0 || index >= PALETTE.length) {
+        throw notIndexed();
+      }
+      array[offset + i] = (byte) index;
+    }
+    data.writerIndex(length);
+    return ByteBufCarrier.ofByteBufCarrier(data);
+  }
+
+  @Override
+  public void dither(final int @NotNull [] buffer, final int width) {
+    for (int i = 0; i < buffer.length; i++) {
+      final int index = buffer[i];
+      if (index < 0 || index >= PALETTE.length) {
+        throw notIndexed();
+      }
+      buffer[i] = PALETTE[index];
+    }
+  }
+
+  private static @NotNull IllegalStateException notIndexed() {
+    return new IllegalStateException(
+        "FFmpeg palette dithering only works on indexed frames from the FFmpeg player!");
+  }
+
+  @Contract(pure = true)
+  public @NotNull String getFilter() {
+    return "paletteuse=dither=%s".formatted(this.mode.getName());
+  }
+
+  public @NotNull Mode getMode() {
+    return this.mode;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (!(obj instanceof FFmpegPaletteDither)) {
+      return false;
+    }
+    return ((FFmpegPaletteDither) obj).mode == this.mode;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(this.mode);
+  }
+
+  public enum Mode {
+    BAYER("bayer"),
+    FLOYD_STEINBERG("floyd_steinberg"),
+    SIERRA2_4A("sierra2_4a");
+
+    private final String name;
+
+    Mode(@NotNull final String name) {
+      this.name = name;
+    }
+
+    public @NotNull String getName() {
+      return this.name;
+    }
+  }
+}
@@ -25,15 +25,17 @@
 package io.github.pulsebeat02.ezmediacore.dither.algorithm.random;
 
 import static io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil.COLOR_MAP;
-import static io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil.FULL_COLOR_MAP;
+import static io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil.ensureLoaded;
 
 import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
 import io.github.pulsebeat02.ezmediacore.dither.MapPalette;
 import io.github.pulsebeat02.ezmediacore.dither.algorithm.NativelySupportedDitheringAlgorithm;
 import io.github.pulsebeat02.ezmediacore.dither.buffer.ByteBufCarrier;
+import io.github.pulsebeat02.ezmediacore.dither.buffer.DitherBuffers;
 import io.github.pulsebeat02.ezmediacore.natives.DitherLibC;
+import io.github.pulsebeat02.ezmediacore.natives.NativeDither;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
+import java.util.Objects;
 import java.util.concurrent.ThreadLocalRandom;
 import org.jetbrains.annotations.NotNull;
 
@@ -70,9 +72,10 @@ public final class RandomDither extends NativelySupportedDitheringAlgorithm {
   @Override
   public @NotNull BufferCarrier standardMinecraftDither(
       final int @NotNull [] buffer, final int width) {
+    ensureLoaded();
     final int length = buffer.length;
     final int height = length / width;
-    final ByteBuf data = Unpooled.buffer(length);
+    final ByteBuf data = DitherBuffers.allocate(length);
     for (int y = 0; y < height; y++) {
       final int yIndex = y * width;
       for (int x = 0; x < width; x++) {
@@ -92,6 +95,7 @@ public final class RandomDither extends NativelySupportedDitheringAlgorithm {
 
   @Override
   public void dither(final int @NotNull [] buffer, final int width) {
+    ensureLoaded();
     final int height = buffer.length / width;
     for (int y = 0; y < height; y++) {
       final int yIndex = y * width;
@@ -112,11 +116,11 @@ public final class RandomDither extends NativelySupportedDitheringAlgorithm {
   @Override
   public @NotNull BufferCarrier ditherIntoMinecraftNatively(
       final int @NotNull [] buffer, final int width) {
-    return ByteBufCarrier.ofByteBufCarrier(
-        Unpooled.wrappedBuffer(
-            DitherLibC.INSTANCE
-                .randomDither(FULL_COLOR_MAP, COLOR_MAP, buffer, width, this.weight)
-                .getByteArray(0L, buffer.length)));
+    ensureLoaded();
+    return NativeDither.dither(
+        buffer,
+        (colors, fullColors, pixels) ->
+            DitherLibC.INSTANCE.randomDither(colors, fullColors, pixels, width, this.weight));
   }
 
   private int random() {
@@ -130,4 +134,14 @@ public final class RandomDither extends NativelySupportedDitheringAlgorithm {
   private int getBestColorNormal(final int r, final int g, final int b) {
     return MapPalette.getColor(this.getBestColor(r, g, b)).getRGB();
   }
+
+  @Override
+  public boolean equals(final Object obj) {
+    return super.equals(obj) && ((RandomDither) obj).weight == this.weight;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(super.hashCode(), this.weight);
+  }
 }
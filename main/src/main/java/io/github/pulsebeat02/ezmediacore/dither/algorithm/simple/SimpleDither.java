@@ -24,19 +24,28 @@
 package io.github.pulsebeat02.ezmediacore.dither.algorithm.simple;
 
 import static io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil.COLOR_MAP;
-import static io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil.FULL_COLOR_MAP;
+import static io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil.ensureLoaded;
 
 import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
 import io.github.pulsebeat02.ezmediacore.dither.MapPalette;
 import io.github.pulsebeat02.ezmediacore.dither.algorithm.NativelySupportedDitheringAlgorithm;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.vector.VectorDither;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.vector.VectorSupport;
 import io.github.pulsebeat02.ezmediacore.dither.buffer.ByteBufCarrier;
+import io.github.pulsebeat02.ezmediacore.dither.buffer.DitherBuffers;
 import io.github.pulsebeat02.ezmediacore.natives.DitherLibC;
+import io.github.pulsebeat02.ezmediacore.natives.NativeDither;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import org.jetbrains.annotations.NotNull;
 
 public final class SimpleDither extends NativelySupportedDitheringAlgorithm {
 
+  private static final boolean VECTORIZED;
+
+  static {
+    VECTORIZED = VectorSupport.isSupported();
+  }
+
   public SimpleDither(final boolean useNative) {
     super(useNative);
   }
@@ -48,9 +57,15 @@ public final class SimpleDither extends NativelySupportedDitheringAlgorithm {
   @Override
   public @NotNull BufferCarrier standardMinecraftDither(
       final int @NotNull [] buffer, final int width) {
+    ensureLoaded();
     final int length = buffer.length;
     final int height = length / width;
-    final ByteBuf data = Unpooled.buffer(length);
+    final ByteBuf data = DitherBuffers.allocate(length);
+    if (VECTORIZED) {
+      VectorDither.simple(buffer, COLOR_MAP, data.array(), data.arrayOffset());
+      data.writerIndex(length);
+      return ByteBufCarrier.ofByteBufCarrier(data);
+    }
     for (int y = 0; y < height; y++) {
       final int yIndex = y * width;
       for (int x = 0; x < width; x++) {
@@ -62,6 +77,7 @@ public final class SimpleDither extends NativelySupportedDitheringAlgorithm {
 
   @Override
   public void dither(final int @NotNull [] buffer, final int width) {
+    ensureLoaded();
     final int height = buffer.length / width;
     for (int y = 0; y < height; y++) {
       final int yIndex = y * width;
@@ -75,11 +91,11 @@ public final class SimpleDither extends NativelySupportedDitheringAlgorithm {
   @Override
   public @NotNull BufferCarrier ditherIntoMinecraftNatively(
       final int @NotNull [] buffer, final int width) {
-    return ByteBufCarrier.ofByteBufCarrier(
-        Unpooled.wrappedBuffer(
-            DitherLibC.INSTANCE
-                .simpleDither(FULL_COLOR_MAP, COLOR_MAP, buffer, width)
-                .getByteArray(0L, buffer.length)));
+    ensureLoaded();
+    return NativeDither.dither(
+        buffer,
+        (colors, fullColors, pixels) ->
+            DitherLibC.INSTANCE.simpleDither(colors, fullColors, pixels, width));
   }
 
   private byte getBestColor(final int red, final int green, final int blue) {
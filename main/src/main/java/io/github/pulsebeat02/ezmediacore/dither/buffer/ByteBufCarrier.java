@@ -25,6 +25,11 @@ public final class ByteBufCarrier implements BufferCarrier {
     return new ByteBufCarrier(Unpooled.copiedBuffer(buffer));
   }
 
+  @Contract(value = "_ -> new", pure = true)
+  public static @NotNull ByteBufCarrier ofByteArray(final byte @NotNull [] array) {
+    return new ByteBufCarrier(Unpooled.wrappedBuffer(array));
+  }
+
   @Override
   public byte getByte(final int index) {
     return this.buffer.getByte(index);
@@ -34,4 +39,14 @@ public final class ByteBufCarrier implements BufferCarrier {
   public int getCapacity() {
     return this.buffer.capacity();
   }
+
+  @Override
+  public void getBytes(final byte[] destination) {
+    this.buffer.getBytes(0, destination);
+  }
+
+  @Override
+  public void release() {
+    this.buffer.release();
+  }
 }
@@ -0,0 +1,80 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.dither.buffer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import java.util.Arrays;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Recycles the memory used while dithering a frame. Output buffers come from a pooled allocator
+ * and go back to it once the {@link ByteBufCarrier} is released, while the error rows are kept per
+ * thread and reused as long as the frame width does not change.
+ */
+public final class DitherBuffers {
+
+  private static final ByteBufAllocator ALLOCATOR;
+  private static final ThreadLocal<int[][]> ERROR_ROWS;
+
+  static {
+    ALLOCATOR = PooledByteBufAllocator.DEFAULT;
+    ERROR_ROWS = ThreadLocal.withInitial(() -> new int[0][0]);
+  }
+
+  private DitherBuffers() {}
+
+  /**
+   * Allocates a pooled heap buffer for the palette indices of a frame. The contents are not
+   * cleared, so every index has to be written before it is read.
+   *
+   * @param length the amount of pixels in the frame
+   * @return a pooled buffer with a capacity of exactly {@code length}
+   */
+  public static @NotNull ByteBuf allocate(final int length) {
+    return ALLOCATOR.heapBuffer(length, length);
+  }
+
+  /**
+   * Gets zeroed error rows owned by the calling thread. The rows are shared by every algorithm
+   * running on the thread, so they must not escape the dithering call.
+   *
+   * @param rows the amount of rows
+   * @param length the length of each row
+   * @return the zeroed rows
+   */
+  public static int @NotNull [] @NotNull [] getErrorRows(final int rows, final int length) {
+    int[][] errors = ERROR_ROWS.get();
+    if (errors.length != rows || errors[0].length != length) {
+      errors = new int[rows][length];
+      ERROR_ROWS.set(errors);
+      return errors;
+    }
+    for (final int[] row : errors) {
+      Arrays.fill(row, 0);
+    }
+    return errors;
+  }
+}
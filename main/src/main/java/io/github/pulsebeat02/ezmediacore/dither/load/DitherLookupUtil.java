@@ -26,9 +26,11 @@ package io.github.pulsebeat02.ezmediacore.dither.load;
 import io.github.pulsebeat02.ezmediacore.annotation.Author;
 import io.github.pulsebeat02.ezmediacore.dither.MapPalette;
 import java.awt.Color;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 @Author(
     authors = {"PulseBeat_02", "BananaPuncher714", "jetp250"},
@@ -39,23 +41,26 @@ public final class DitherLookupUtil {
   public static final byte[] COLOR_MAP;
   public static final int[] FULL_COLOR_MAP;
 
+  private static volatile boolean loaded;
+
   static {
     COLOR_MAP = new byte[128 * 128 * 128];
     FULL_COLOR_MAP = new int[128 * 128 * 128];
     final List<Integer> colors = getPaletteColors();
     PALETTE = new int[colors.size()];
     updateIndices(colors);
-    createLookupTable(forkRed());
   }
 
   private static void createLookupTable(@NotNull final List<LoadRed> tasks) {
     for (int i = 0; i < 128; i++) {
       final byte[] sub = tasks.get(i).join();
-      final int ci = i << 14;
-      for (int si = 0; si < 16384; si++) {
-        COLOR_MAP[ci + si] = sub[si];
-        FULL_COLOR_MAP[ci + si] = PALETTE[Byte.toUnsignedInt(sub[si])];
-      }
+      System.arraycopy(sub, 0, COLOR_MAP, i << 14, 16384);
+    }
+  }
+
+  private static void createFullLookupTable() {
+    for (int i = 0; i < COLOR_MAP.length; i++) {
+      FULL_COLOR_MAP[i] = PALETTE[Byte.toUnsignedInt(COLOR_MAP[i])];
     }
   }
 
@@ -95,13 +100,53 @@ public final class DitherLookupUtil {
   }
 
   public static byte[] getColorMap() {
+    ensureLoaded();
     return COLOR_MAP;
   }
 
   public static int[] getFullColorMap() {
+    ensureLoaded();
     return FULL_COLOR_MAP;
   }
 
-  /** Init. */
-  public static void init() {}
+  /** Builds the lookup tables in memory if they were not loaded yet. */
+  public static void init() {
+    init(null);
+  }
+
+  /**
+   * Loads the lookup tables from the cache folder, building and storing them there first if the
+   * palette changed or no table was cached yet. Does nothing if the tables were already built,
+   * including by {@link #ensureLoaded()} because a dither ran before this was called.
+   *
+   * @param folder the folder holding the cached table, or null to skip caching
+   */
+  public static synchronized void init(@Nullable final Path folder) {
+    if (loaded) {
+      return;
+    }
+    final LookupTableCache cache = folder == null ? null : new LookupTableCache(folder, PALETTE);
+    if (cache == null || !cache.read(COLOR_MAP)) {
+      createLookupTable(forkRed());
+      if (cache != null) {
+        cache.write(COLOR_MAP);
+      }
+    }
+    createFullLookupTable();
+    loaded = true;
+  }
+
+  /**
+   * Builds the lookup tables in memory if nothing initialized them yet. Every dithering entry point
+   * calls this once per frame before reading the tables, so they are never read while still empty.
+   */
+  public static void ensureLoaded() {
+    if (!loaded) {
+      init();
+    }
+  }
+
+  public static boolean isLoaded() {
+    return loaded;
+  }
 }
@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.dither.load;
+
+import io.github.pulsebeat02.ezmediacore.utility.io.HashingUtils;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Stores the color lookup table on disk, named after a hash of the palette it was generated from.
+ * A changed palette therefore never reads a stale table, and servers sharing the same folder read
+ * the same page cached file instead of each computing the table.
+ */
+final class LookupTableCache {
+
+  private static final int MAGIC = 0x455A4C54; // EZLT
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 8;
+  private static final String PREFIX = "color-map-";
+  private static final String SUFFIX = ".bin";
+
+  private final Path folder;
+  private final Path file;
+
+  LookupTableCache(@NotNull final Path folder, final int @NotNull [] palette) {
+    this.folder = folder;
+    this.file = folder.resolve(PREFIX + this.hashPalette(palette) + SUFFIX);
+  }
+
+  private @NotNull String hashPalette(final int @NotNull [] palette) {
+    try {
+      final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      final ByteBuffer buffer = ByteBuffer.allocate(palette.length << 2);
+      buffer.asIntBuffer().put(palette);
+      return HashingUtils.toHexString(digest.digest(buffer.array())).substring(0, 16);
+    } catch (final NoSuchAlgorithmException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  boolean read(final byte @NotNull [] table) {
+    if (Files.notExists(this.file)) {
+      return false;
+    }
+    try (final FileChannel channel = FileChannel.open(this.file, StandardOpenOption.READ)) {
+      if (channel.size() != HEADER_SIZE + table.length) {
+        return false;
+      }
+      final MappedByteBuffer buffer =
+          channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE + table.length);
+      if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+        return false;
+      }
+      buffer.get(table);
+      return true;
+    } catch (final IOException e) {
+      return false;
+    }
+  }
+
+  void write(final byte @NotNull [] table) {
+    try {
+      Files.createDirectories(this.folder);
+      this.deleteStaleTables();
+      final Path temp = Files.createTempFile(this.folder, "lookup", ".tmp");
+      try (final FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).flip();
+        final ByteBuffer body = ByteBuffer.wrap(table);
+        while (header.hasRemaining() || body.hasRemaining()) {
+          channel.write(new ByteBuffer[] {header, body});
+        }
+      }
+      this.move(temp);
+    } catch (final IOException e) {
+      e.printStackTrace(); // the table is already in memory, only the next startup is slower
+    }
+  }
+
+  private void move(@NotNull final Path temp) throws IOException {
+    try {
+      Files.move(temp, this.file, StandardCopyOption.ATOMIC_MOVE);
+    } catch (final AtomicMoveNotSupportedException e) {
+      Files.move(temp, this.file, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private void deleteStaleTables() throws IOException {
+    try (final DirectoryStream<Path> stream =
+        Files.newDirectoryStream(this.folder, PREFIX + "*" + SUFFIX)) {
+      for (final Path path : stream) {
+        if (!path.equals(this.file)) {
+          Files.deleteIfExists(path);
+        }
+      }
+    }
+  }
+}
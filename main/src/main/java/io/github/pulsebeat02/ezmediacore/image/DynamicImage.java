@@ -25,32 +25,28 @@ package io.github.pulsebeat02.ezmediacore.image;
 
 import io.github.pulsebeat02.ezmediacore.MediaLibraryCore;
 import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
+import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.FilterLiteDither;
+import io.github.pulsebeat02.ezmediacore.executor.ExecutorProvider;
+import io.github.pulsebeat02.ezmediacore.image.GifAnimator.Animation;
 import io.github.pulsebeat02.ezmediacore.utility.graphics.GifDecoder;
-import io.github.pulsebeat02.ezmediacore.utility.misc.Try;
-import java.io.FileInputStream;
+import io.github.pulsebeat02.ezmediacore.utility.task.TaskUtils;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
 import org.jetbrains.annotations.NotNull;
 
 public class DynamicImage extends Image
     implements io.github.pulsebeat02.ezmediacore.image.GifImage {
 
-  private static final ExecutorService MAP_UPDATE_POOL;
-
-  static {
-    MAP_UPDATE_POOL = Executors.newCachedThreadPool();
-  }
-
-  private final GifDecoder.GifImage image;
+  private final transient GifDecoder.GifImage image;
   private final int frameCount;
-  private final AtomicBoolean cancelled;
-  private int frame;
+  private transient byte[][][][] frames;
+  private transient int[] delays;
+  private transient boolean resized;
+  private transient boolean cancelled;
+  private transient Animation animation;
 
   public DynamicImage(
       @NotNull final MediaLibraryCore core,
@@ -58,44 +54,103 @@ public class DynamicImage extends Image
       @NotNull final List<Integer> maps,
       @NotNull final Dimension dimension)
       throws IOException {
-    super(core, image, maps, dimension);
-    this.image = GifDecoder.read(new FileInputStream(image.toFile()));
-    this.cancelled = new AtomicBoolean(false);
+    this(core, image, maps, dimension, new FilterLiteDither());
+  }
+
+  public DynamicImage(
+      @NotNull final MediaLibraryCore core,
+      @NotNull final Path image,
+      @NotNull final List<Integer> maps,
+      @NotNull final Dimension dimension,
+      @NotNull final DitherAlgorithm algorithm)
+      throws IOException {
+    super(core, image, maps, dimension, algorithm);
+    this.image = GifDecoder.read(image);
+    this.image.setCacheSize(0); // frames are dithered in order and only the tiles are kept
     this.frameCount = this.image.getFrameCount();
   }
 
   @Override
   public void draw(final boolean resize) {
     this.onStartDrawImage();
-    CompletableFuture.runAsync(() -> this.drawImage(resize), MAP_UPDATE_POOL);
+    synchronized (this) {
+      this.cancelled = false;
+    }
+    CompletableFuture.runAsync(() -> this.play(resize), ExecutorProvider.SHARED_RESULT_POOL);
     this.onFinishDrawImage();
   }
 
-  private void drawImage(final boolean resize) {
-    while (!this.cancelled.get()) {
-      for (; this.frame < this.frameCount; this.frame++) {
-        this.display(resize);
-        Try.sleep(TimeUnit.MILLISECONDS, this.image.getDelay(this.frame) * 10L);
-      }
+  private void play(final boolean resize) {
+    final byte[][][][] frames;
+    final int[] delays;
+    synchronized (this.image) {
+      frames = this.getFrames(resize);
+      delays = this.delays;
+    }
+    TaskUtils.sync(
+        this.getCore(),
+        () -> {
+          this.start(frames, delays);
+          return null;
+        });
+  }
+
+  /** Installs the renderers with the first frame on the server thread, then starts animating. */
+  private synchronized void start(
+      final byte @NotNull [] @NotNull [] @NotNull [] @NotNull [] frames,
+      final int @NotNull [] delays) {
+    if (this.animation != null) {
+      this.animation.cancel();
+      this.animation = null;
+    }
+    if (!this.cancelled) {
+      this.getRenderer().drawTiles(frames[0]);
+      this.animation = GifAnimator.getAnimator().play(this.getRenderer(), frames, delays);
     }
   }
 
-  private void display(final boolean resize) {
-    this.getRenderer().drawMap(this.process(this.image.getFrame(this.frame), resize));
+  /**
+   * Scales and dithers every frame once, or reads them from the disk cache. Later draws reuse the
+   * frames unless they are resized differently.
+   */
+  private byte @NotNull [] @NotNull [] @NotNull [] @NotNull [] getFrames(final boolean resize) {
+    if (this.frames == null || this.resized != resize) {
+      TileCache.Entry entry = this.readTiles(resize);
+      if (entry == null || entry.frames().length != this.frameCount) {
+        final byte[][][][] frames = new byte[this.frameCount][][][];
+        final int[] delays = new int[this.frameCount];
+        for (int i = 0; i < frames.length; i++) {
+          frames[i] = this.dither(this.image.getFrame(i), resize);
+          delays[i] = this.image.getDelay(i);
+        }
+        entry = new TileCache.Entry(frames, delays);
+        this.writeTiles(resize, entry);
+      }
+      this.frames = entry.frames();
+      this.delays = entry.delays();
+      this.resized = resize;
+    }
+    return this.frames;
   }
 
   @Override
   public void stopDrawing() {
     this.onStopDrawing();
-    this.cancelled.set(true);
+    synchronized (this) {
+      this.cancelled = true;
+      if (this.animation != null) {
+        this.animation.cancel();
+        this.animation = null;
+      }
+    }
   }
 
   @Override
   public void onStopDrawing() {}
 
   @Override
-  public int getCurrentFrame() {
-    return this.frame;
+  public synchronized int getCurrentFrame() {
+    return this.animation == null ? 0 : Math.max(this.animation.getFrame(), 0);
   }
 
   @Override
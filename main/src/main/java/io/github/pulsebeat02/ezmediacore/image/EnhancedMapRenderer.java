@@ -38,12 +38,14 @@ import org.jetbrains.annotations.NotNull;
 public class EnhancedMapRenderer implements MapRenderer {
 
   private final MapView[][] maps;
+  private final TileRenderer[][] renderers;
 
   public EnhancedMapRenderer(
       @NotNull final Dimension dimension, @NotNull final List<Integer> maps) {
     checkNotNull(dimension);
     checkNotNull(maps);
     this.maps = new MapView[dimension.getHeight()][dimension.getWidth()];
+    this.renderers = new TileRenderer[dimension.getHeight()][dimension.getWidth()];
     this.fillMaps(maps, dimension);
   }
 
@@ -55,6 +57,7 @@ public class EnhancedMapRenderer implements MapRenderer {
       for (int j = 0; j < width; j++, count++) {
         //noinspection deprecation
         this.maps[i][j] = Bukkit.getMap(maps.get(count));
+        this.renderers[i][j] = new TileRenderer();
       }
     }
   }
@@ -63,13 +66,51 @@ public class EnhancedMapRenderer implements MapRenderer {
   public void drawMap(@NotNull final BufferedImage[][] images) {
     for (int i = 0; i < this.maps.length; i++) {
       for (int j = 0; j < this.maps[i].length; j++) {
-        final MapView view = this.maps[i][j];
-        view.getRenderers().clear();
-        view.addRenderer(this.createRenderer(images, i, j));
+        this.replaceRenderers(this.maps[i][j], this.createRenderer(images, i, j));
       }
     }
   }
 
+  @Override
+  public void drawTiles(final byte @NotNull [] @NotNull [] @NotNull [] tiles) {
+    this.setTiles(tiles);
+    for (int i = 0; i < this.maps.length; i++) {
+      for (int j = 0; j < this.maps[i].length; j++) {
+        this.install(this.maps[i][j], this.renderers[i][j]);
+      }
+    }
+  }
+
+  @Override
+  public void setTiles(final byte @NotNull [] @NotNull [] @NotNull [] tiles) {
+    for (int i = 0; i < this.renderers.length; i++) {
+      for (int j = 0; j < this.renderers[i].length; j++) {
+        this.renderers[i][j].setTile(tiles[i][j]);
+      }
+    }
+  }
+
+  private void install(@NotNull final MapView view, @NotNull final TileRenderer renderer) {
+    final List<org.bukkit.map.MapRenderer> renderers = view.getRenderers();
+    if (renderers.size() == 1 && renderers.get(0) == renderer) {
+      return;
+    }
+    renderer.reset();
+    this.replaceRenderers(view, renderer);
+  }
+
+  /**
+   * Removes every renderer of a view and adds another one. The list returned by {@link
+   * MapView#getRenderers()} is a copy, so clearing it would keep the old renderers.
+   */
+  private void replaceRenderers(
+      @NotNull final MapView view, final org.bukkit.map.@NotNull MapRenderer renderer) {
+    for (final org.bukkit.map.MapRenderer old : view.getRenderers()) {
+      view.removeRenderer(old);
+    }
+    view.addRenderer(renderer);
+  }
+
   @Contract(value = "_, _, _ -> new", pure = true)
   private org.bukkit.map.@NotNull MapRenderer createRenderer(
       @NotNull final BufferedImage[][] images, final int x, final int y) {
@@ -83,4 +124,44 @@ public class EnhancedMapRenderer implements MapRenderer {
       }
     };
   }
+
+  /**
+   * Copies pre-dithered palette indices onto the canvas. The canvas is shared by all players and
+   * keeps its pixels between renders, so a tile is only copied once after it changed, instead of
+   * converting an image for every player on every render.
+   */
+  private static final class TileRenderer extends org.bukkit.map.MapRenderer {
+
+    private volatile byte[] tile;
+    private volatile byte[] drawn;
+
+    TileRenderer() {
+      super(false);
+    }
+
+    void setTile(final byte @NotNull [] tile) {
+      this.tile = tile;
+    }
+
+    void reset() {
+      this.drawn = null;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public void render(
+        @NotNull final MapView map, @NotNull final MapCanvas canvas, @NotNull final Player player) {
+      final byte[] tile = this.tile;
+      if (tile == null || tile == this.drawn) {
+        return;
+      }
+      for (int y = 0; y < 128; y++) {
+        final int row = y << 7;
+        for (int x = 0; x < 128; x++) {
+          canvas.setPixel(x, y, tile[row + x]);
+        }
+      }
+      this.drawn = tile;
+    }
+  }
 }
@@ -0,0 +1,223 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.image;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Drives every animated image from a single thread. Animations sit in a hashed timing wheel with
+ * one slot per 10 milliseconds, the unit GIF delays are stored in, so each tick only visits the
+ * animations that are due. Showing a frame only hands its pre-dithered tiles to the renderer, so
+ * the maps themselves are never touched from this thread.
+ *
+ * <p>The thread only ticks while there are animations.
+ */
+public final class GifAnimator implements Runnable {
+
+  private static final long TICK_MILLIS = 10;
+  private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+  private static final int WHEEL_SIZE = 256;
+  private static final int MASK = WHEEL_SIZE - 1;
+  private static final GifAnimator ANIMATOR;
+
+  static {
+    ANIMATOR = new GifAnimator();
+  }
+
+  private final ScheduledExecutorService executor;
+  private final Queue<Animation> pending;
+  private final ArrayDeque<Animation>[] wheel;
+  private final AtomicInteger active;
+  private final long origin;
+  private ScheduledFuture<?> task;
+  private long tick;
+  private int scheduled;
+
+  @SuppressWarnings("unchecked")
+  private GifAnimator() {
+    this.executor =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              final Thread thread = new Thread(runnable, "GIF Animator");
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.pending = new ConcurrentLinkedQueue<>();
+    this.wheel = new ArrayDeque[WHEEL_SIZE];
+    for (int i = 0; i < WHEEL_SIZE; i++) {
+      this.wheel[i] = new ArrayDeque<>();
+    }
+    this.active = new AtomicInteger();
+    this.origin = System.nanoTime();
+  }
+
+  public static @NotNull GifAnimator getAnimator() {
+    return ANIMATOR;
+  }
+
+  /**
+   * Starts looping an animation. The first frame is shown on the next tick.
+   *
+   * @param renderer the renderer to draw the frames on, which {@link
+   *     MapRenderer#drawTiles(byte[][][])} already installed on the maps
+   * @param frames the tiles of each frame, as returned by {@link MapImage#dither}
+   * @param delays the delay after each frame in hundredths of a second
+   * @return the running animation
+   */
+  public @NotNull Animation play(
+      @NotNull final MapRenderer renderer,
+      final byte @NotNull [] @NotNull [] @NotNull [] @NotNull [] frames,
+      final int @NotNull [] delays) {
+    checkNotNull(renderer, "Renderer cannot be null!");
+    checkArgument(frames.length > 0, "Animation must have at least one frame!");
+    checkArgument(frames.length == delays.length, "Every frame needs a delay!");
+    final Animation animation = new Animation(renderer, frames, delays);
+    this.active.incrementAndGet();
+    this.pending.add(animation);
+    this.ensureRunning();
+    return animation;
+  }
+
+  private synchronized void ensureRunning() {
+    if (this.task == null) {
+      this.task =
+          this.executor.scheduleAtFixedRate(this, 0, TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private synchronized void stopIfIdle() {
+    if (this.active.get() == 0 && this.task != null) {
+      this.task.cancel(false);
+      this.task = null;
+    }
+  }
+
+  @Override
+  public void run() {
+    final long target = (System.nanoTime() - this.origin) / TICK_NANOS;
+    if (this.scheduled == 0) {
+      this.tick = target;
+    }
+    for (; this.tick <= target; this.tick++) {
+      this.addPending();
+      this.advance(this.wheel[(int) (this.tick & MASK)]);
+    }
+    if (this.scheduled == 0) {
+      this.stopIfIdle();
+    }
+  }
+
+  private void addPending() {
+    Animation animation;
+    while ((animation = this.pending.poll()) != null) {
+      animation.due = this.tick;
+      this.schedule(animation);
+    }
+  }
+
+  private void advance(@NotNull final ArrayDeque<Animation> slot) {
+    for (int i = slot.size(); i > 0; i--) {
+      final Animation animation = slot.poll();
+      this.scheduled--;
+      if (animation.cancelled) {
+        this.active.decrementAndGet();
+        continue;
+      }
+      if (animation.due <= this.tick) {
+        try {
+          animation.due += animation.show();
+        } catch (final RuntimeException e) {
+          animation.cancelled = true;
+          this.active.decrementAndGet();
+          continue;
+        }
+      }
+      this.schedule(animation);
+    }
+  }
+
+  private void schedule(@NotNull final Animation animation) {
+    this.wheel[(int) (animation.due & MASK)].add(animation);
+    this.scheduled++;
+  }
+
+  /** An animation started by {@link #play(MapRenderer, byte[][][][], int[])}. */
+  public static final class Animation {
+
+    private final MapRenderer renderer;
+    private final byte[][][][] frames;
+    private final int[] delays;
+    private volatile boolean cancelled;
+    private volatile int frame;
+    private long due;
+
+    Animation(
+        @NotNull final MapRenderer renderer,
+        final byte @NotNull [] @NotNull [] @NotNull [] @NotNull [] frames,
+        final int @NotNull [] delays) {
+      this.renderer = renderer;
+      this.frames = frames;
+      this.delays = delays;
+      this.frame = -1;
+    }
+
+    private int show() {
+      final int next = this.frame + 1 == this.frames.length ? 0 : this.frame + 1;
+      this.renderer.setTiles(this.frames[next]);
+      this.frame = next;
+      final int delay = this.delays[next];
+      // like browsers, play frames without a usable delay at 10 frames per second
+      return delay <= 1 ? 10 : delay;
+    }
+
+    /** Stops the animation. The last frame stays on the maps. */
+    public void cancel() {
+      this.cancelled = true;
+    }
+
+    public boolean isCancelled() {
+      return this.cancelled;
+    }
+
+    /**
+     * Gets the frame shown last.
+     *
+     * @return the index of the frame, or -1 if none was shown yet
+     */
+    public int getFrame() {
+      return this.frame;
+    }
+  }
+}
@@ -28,18 +28,27 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static java.util.Objects.requireNonNull;
 
 import io.github.pulsebeat02.ezmediacore.MediaLibraryCore;
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
 import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
+import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.FilterLiteDither;
 import io.github.pulsebeat02.ezmediacore.utility.graphics.ImageUtils;
+import io.github.pulsebeat02.ezmediacore.utility.graphics.PixelScaler;
 import java.awt.image.BufferedImage;
+import java.io.IOException;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.UUID;
+import org.bukkit.map.MapView;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 public abstract class Image implements MapImage {
 
   private final transient MediaLibraryCore core;
   private final transient EnhancedMapRenderer renderer;
+  private final transient DitherAlgorithm algorithm;
+  private final transient TileCache cache;
   private final Dimension dimension;
   private final List<Integer> maps;
   private final Path image;
@@ -50,16 +59,28 @@ public abstract class Image implements MapImage {
       @NotNull final Path image,
       @NotNull final List<Integer> maps,
       @NotNull final Dimension dimension) {
+    this(core, image, maps, dimension, new FilterLiteDither());
+  }
+
+  public Image(
+      @NotNull final MediaLibraryCore core,
+      @NotNull final Path image,
+      @NotNull final List<Integer> maps,
+      @NotNull final Dimension dimension,
+      @NotNull final DitherAlgorithm algorithm) {
     checkNotNull(core, "MediaLibraryCore cannot be null!");
     checkNotNull(image, "Image cannot be null!");
     checkNotNull(maps, "Maps cannot be null!");
     checkNotNull(dimension, "Dimensions cannot be null!");
+    checkNotNull(algorithm, "Algorithm cannot be null!");
     checkArgument(maps.size() >= 1, "Invalid Map Matrix!");
     checkArgument(
         maps.size() == dimension.getWidth() * dimension.getHeight(),
         "Maps specified to use doesn't match dimensions (in itemframes) of image!");
     this.core = core;
     this.renderer = new EnhancedMapRenderer(dimension, maps);
+    this.algorithm = algorithm;
+    this.cache = new TileCache(core, core.getImagePath().resolve("tiles"));
     this.image = image;
     this.maps = maps;
     this.dimension = dimension;
@@ -70,29 +91,102 @@ public abstract class Image implements MapImage {
   public void onStartDrawImage() {}
 
   @Override
-  public @NotNull BufferedImage[][] process(@NotNull BufferedImage image, final boolean resize) {
+  public @NotNull BufferedImage[][] process(
+      @NotNull final BufferedImage image, final boolean resize) {
+    final int width = this.dimension.getWidth() << 7;
+    final int height = this.dimension.getHeight() << 7;
+    final int[][][] tiles =
+        PixelScaler.slice(
+            this.getPixels(image, resize, width, height),
+            this.dimension.getHeight(),
+            this.dimension.getWidth());
+    final BufferedImage[][] matrix = new BufferedImage[tiles.length][tiles[0].length];
+    for (int row = 0; row < matrix.length; row++) {
+      for (int column = 0; column < matrix[row].length; column++) {
+        final BufferedImage tile = new BufferedImage(128, 128, BufferedImage.TYPE_INT_ARGB);
+        tile.setRGB(0, 0, 128, 128, tiles[row][column], 0, 128);
+        matrix[row][column] = tile;
+      }
+    }
+    return matrix;
+  }
+
+  @Override
+  public byte @NotNull [] @NotNull [] @NotNull [] dither(
+      @NotNull final BufferedImage image, final boolean resize) {
+    final int width = this.dimension.getWidth() << 7;
+    final int height = this.dimension.getHeight() << 7;
+    final int[] pixels = this.getPixels(image, resize, width, height);
+    final byte[] indices = new byte[pixels.length];
+    final BufferCarrier carrier = this.algorithm.ditherIntoMinecraft(pixels, width);
+    try {
+      carrier.getBytes(indices);
+    } finally {
+      carrier.release();
+    }
+    for (int i = 0; i < pixels.length; i++) {
+      if (pixels[i] >>> 24 < 128) {
+        indices[i] = 0;
+      }
+    }
+    return PixelScaler.slice(indices, this.dimension.getHeight(), this.dimension.getWidth());
+  }
+
+  /**
+   * Scales the image to the maps, or crops and pads it with transparency, without drawing through
+   * AWT.
+   */
+  private int @NotNull [] getPixels(
+      @NotNull final BufferedImage image, final boolean resize, final int width, final int height) {
+    final int[] pixels = ImageUtils.getPixels(image);
+    final int sourceWidth = image.getWidth();
+    final int sourceHeight = image.getHeight();
     if (resize) {
-      image = this.resizeImage(image);
+      return PixelScaler.scale(pixels, sourceWidth, sourceHeight, width, height);
+    } else if (sourceWidth == width && sourceHeight == height) {
+      return pixels;
     }
-    return this.processImage(image);
+    final int[] cropped = new int[width * height];
+    final int copyWidth = Math.min(width, sourceWidth);
+    for (int y = 0; y < Math.min(height, sourceHeight); y++) {
+      System.arraycopy(pixels, y * sourceWidth, cropped, y * width, copyWidth);
+    }
+    return cropped;
   }
 
-  private @NotNull BufferedImage resizeImage(@NotNull final BufferedImage image) {
-    return ImageUtils.resize(
-        image, this.dimension.getWidth() << 7, this.dimension.getHeight() << 7);
+  /**
+   * Reads the tiles of every frame from the disk cache.
+   *
+   * @param resize whether the image is resized to the maps
+   * @return the cached frames and delays, or null if they have to be dithered
+   */
+  @Nullable
+  TileCache.Entry readTiles(final boolean resize) {
+    final String key = this.getTileKey(resize);
+    return key == null
+        ? null
+        : this.cache.read(key, this.dimension.getHeight(), this.dimension.getWidth());
   }
 
-  private @NotNull BufferedImage[][] processImage(@NotNull final BufferedImage image) {
-    final int width = this.dimension.getWidth();
-    final int height = this.dimension.getHeight();
-    final BufferedImage[][] matrix = new BufferedImage[width][height];
-    for (int rows = 0; rows < matrix.length; rows++) {
-      for (int cols = 0; cols < matrix[rows].length; cols++) {
-        matrix[rows][cols] = new BufferedImage(128, 128, image.getType());
-        ImageUtils.trimForMapSize(matrix[rows][cols], rows, cols);
-      }
+  /**
+   * Stores the dithered tiles of every frame in the disk cache.
+   *
+   * @param resize whether the image is resized to the maps
+   * @param entry the frames and delays
+   */
+  void writeTiles(final boolean resize, @NotNull final TileCache.Entry entry) {
+    final String key = this.getTileKey(resize);
+    if (key != null) {
+      this.cache.write(key, entry);
+    }
+  }
+
+  private @Nullable String getTileKey(final boolean resize) {
+    try {
+      return TileCache.createKey(this.image, this.dimension, this.algorithm, resize);
+    } catch (final IOException e) {
+      return null;
     }
-    return matrix;
   }
 
   @Override
@@ -102,10 +196,12 @@ public abstract class Image implements MapImage {
   public void resetMaps() {
     for (final int map : this.maps) {
       //noinspection deprecation
-      requireNonNull(
-              this.core.getPlugin().getServer().getMap(map), "Invalid map view %s".formatted(map))
-          .getRenderers()
-          .clear();
+      final MapView view =
+          requireNonNull(
+              this.core.getPlugin().getServer().getMap(map), "Invalid map view %s".formatted(map));
+      for (final org.bukkit.map.MapRenderer renderer : view.getRenderers()) {
+        view.removeRenderer(renderer);
+      }
     }
   }
 
@@ -134,6 +230,10 @@ public abstract class Image implements MapImage {
     return this.renderer;
   }
 
+  public @NotNull DitherAlgorithm getAlgorithm() {
+    return this.algorithm;
+  }
+
   @Override
   public @NotNull UUID getIdentifier() {
     return this.uuid;
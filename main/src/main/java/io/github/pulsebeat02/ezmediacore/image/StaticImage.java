@@ -25,6 +25,8 @@ package io.github.pulsebeat02.ezmediacore.image;
 
 import io.github.pulsebeat02.ezmediacore.MediaLibraryCore;
 import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
+import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.FilterLiteDither;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
 import java.nio.file.Path;
@@ -34,7 +36,7 @@ import org.jetbrains.annotations.NotNull;
 
 public class StaticImage extends Image implements MapImage {
 
-  private final BufferedImage image;
+  private transient BufferedImage image;
 
   public StaticImage(
       @NotNull final MediaLibraryCore core,
@@ -42,14 +44,44 @@ public class StaticImage extends Image implements MapImage {
       @NotNull final List<Integer> maps,
       @NotNull final Dimension dimension)
       throws IOException {
-    super(core, image, maps, dimension);
-    this.image = ImageIO.read(image.toFile());
+    this(core, image, maps, dimension, new FilterLiteDither());
+  }
+
+  public StaticImage(
+      @NotNull final MediaLibraryCore core,
+      @NotNull final Path image,
+      @NotNull final List<Integer> maps,
+      @NotNull final Dimension dimension,
+      @NotNull final DitherAlgorithm algorithm)
+      throws IOException {
+    super(core, image, maps, dimension, algorithm);
   }
 
   @Override
   public void draw(final boolean resize) {
     this.onStartDrawImage();
-    this.getRenderer().drawMap(this.process(this.image, resize));
+    this.getRenderer().drawTiles(this.getTiles(resize));
     this.onFinishDrawImage();
   }
+
+  private byte @NotNull [] @NotNull [] @NotNull [] getTiles(final boolean resize) {
+    final TileCache.Entry cached = this.readTiles(resize);
+    if (cached != null) {
+      return cached.frames()[0];
+    }
+    final byte[][][] tiles = this.dither(this.getImage(), resize);
+    this.writeTiles(resize, new TileCache.Entry(new byte[][][][] {tiles}, new int[] {0}));
+    return tiles;
+  }
+
+  private synchronized @NotNull BufferedImage getImage() {
+    if (this.image == null) {
+      try {
+        this.image = ImageIO.read(this.getImagePath().toFile());
+      } catch (final IOException e) {
+        throw new AssertionError(e);
+      }
+    }
+    return this.image;
+  }
 }
@@ -0,0 +1,300 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.image;
+
+import io.github.pulsebeat02.ezmediacore.MediaLibraryCore;
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
+import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
+import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.locale.Locale;
+import io.github.pulsebeat02.ezmediacore.utility.io.HashingUtils;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Stores the dithered tiles of images on disk, named after a hash of the source file, the map
+ * dimensions, whether the image was resized and the dither algorithm. Any change to one of them
+ * leads to a different file, so an entry is never stale, and restoring a picture only inflates
+ * its tiles instead of decoding, scaling and dithering the source again.
+ *
+ * <p>Dither algorithms carry no identity of their own, so an algorithm is identified by the
+ * output it produces for a fixed probe image. Algorithms which dither randomly produce a
+ * different output for the same probe and are not cached at all.
+ *
+ * <p>Reading an entry refreshes its modification time. Entries which have not been read for
+ * {@link #MAX_AGE} are deleted whenever a new entry is written, oldest first once the folder
+ * grows past {@link #MAX_FOLDER_SIZE}, as they belong to images which are no longer used.
+ */
+final class TileCache {
+
+  private static final int MAGIC = 0x455A5443; // EZTC
+  private static final int VERSION = 1;
+  private static final int TILE_SIZE = 128 * 128;
+  private static final int PROBE_WIDTH = 64;
+  private static final int MAX_DEFLATE_RATIO = 1032;
+  private static final long MAX_FOLDER_SIZE = 512L * 1024 * 1024;
+  private static final Duration MAX_AGE = Duration.ofDays(30);
+  private static final byte[] UNCACHEABLE = new byte[0];
+  private static final Map<DitherAlgorithm, byte[]> FINGERPRINTS =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
+  private final MediaLibraryCore core;
+  private final Path folder;
+
+  TileCache(@NotNull final MediaLibraryCore core, @NotNull final Path folder) {
+    this.core = core;
+    this.folder = folder;
+  }
+
+  /**
+   * Creates the key of an image.
+   *
+   * @param source the source file
+   * @param dimension the dimensions in maps
+   * @param algorithm the dither algorithm
+   * @param resize whether the image is resized to the maps
+   * @return the key, or null if the algorithm is not deterministic
+   * @throws IOException if the source could not be read
+   */
+  static @Nullable String createKey(
+      @NotNull final Path source,
+      @NotNull final Dimension dimension,
+      @NotNull final DitherAlgorithm algorithm,
+      final boolean resize)
+      throws IOException {
+    final byte[] fingerprint =
+        FINGERPRINTS.computeIfAbsent(algorithm, TileCache::createFingerprint);
+    if (fingerprint == UNCACHEABLE) {
+      return null;
+    }
+    final MessageDigest digest = createDigest();
+    try (final InputStream stream = Files.newInputStream(source)) {
+      final byte[] buffer = new byte[8192];
+      int read;
+      while ((read = stream.read(buffer)) != -1) {
+        digest.update(buffer, 0, read);
+      }
+    }
+    digest.update(
+        ByteBuffer.allocate(13)
+            .putInt(VERSION)
+            .putInt(dimension.getWidth())
+            .putInt(dimension.getHeight())
+            .put((byte) (resize ? 1 : 0))
+            .flip());
+    digest.update(fingerprint);
+    return HashingUtils.toHexString(digest.digest()).substring(0, 32);
+  }
+
+  private static byte @NotNull [] createFingerprint(@NotNull final DitherAlgorithm algorithm) {
+    final byte[] fingerprint = dither(algorithm);
+    return Arrays.equals(fingerprint, dither(algorithm)) ? fingerprint : UNCACHEABLE;
+  }
+
+  private static byte @NotNull [] dither(@NotNull final DitherAlgorithm algorithm) {
+    final int[] probe = new int[PROBE_WIDTH * PROBE_WIDTH];
+    for (int i = 0; i < probe.length; i++) {
+      probe[i] = 0xFF000000 | i * 0x9E3779B1 >>> 8;
+    }
+    final byte[] output = new byte[probe.length];
+    final BufferCarrier carrier = algorithm.ditherIntoMinecraft(probe, PROBE_WIDTH);
+    try {
+      carrier.getBytes(output);
+    } finally {
+      carrier.release();
+    }
+    final MessageDigest digest = createDigest();
+    digest.update(algorithm.getClass().getName().getBytes(StandardCharsets.UTF_8));
+    digest.update(output);
+    return digest.digest();
+  }
+
+  private static @NotNull MessageDigest createDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (final NoSuchAlgorithmException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  /**
+   * Reads the tiles stored under a key.
+   *
+   * @param key the key
+   * @param rows the amount of map rows
+   * @param columns the amount of map columns
+   * @return the entry, or null if there is no valid entry
+   */
+  @Nullable
+  Entry read(@NotNull final String key, final int rows, final int columns) {
+    final Path file = this.getFile(key);
+    try (final DataInputStream input =
+        new DataInputStream(
+            new InflaterInputStream(new BufferedInputStream(Files.newInputStream(file))))) {
+      if (input.readInt() != MAGIC
+          || input.readInt() != VERSION
+          || input.readInt() != rows
+          || input.readInt() != columns) {
+        return null;
+      }
+      final int count = input.readInt();
+      final long frameSize = Integer.BYTES + (long) rows * columns * TILE_SIZE;
+      if (count <= 0 || count > Files.size(file) * MAX_DEFLATE_RATIO / frameSize) {
+        return null;
+      }
+      final int[] delays = new int[count];
+      final byte[][][][] frames = new byte[count][rows][columns][TILE_SIZE];
+      for (int i = 0; i < count; i++) {
+        delays[i] = input.readInt();
+        for (final byte[][] row : frames[i]) {
+          for (final byte[] tile : row) {
+            input.readFully(tile);
+          }
+        }
+      }
+      Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+      return new Entry(frames, delays);
+    } catch (final IOException e) {
+      return null; // missing, truncated or corrupted entries are dithered again and overwritten
+    }
+  }
+
+  /**
+   * Stores tiles under a key. Failures are only logged, as the tiles just have to be dithered
+   * again.
+   *
+   * @param key the key
+   * @param entry the tiles and delays of each frame
+   */
+  void write(@NotNull final String key, @NotNull final Entry entry) {
+    final Path file = this.getFile(key);
+    try {
+      this.writeFile(file, entry);
+      this.prune();
+    } catch (final IOException e) {
+      this.core.getLogger().warn(Locale.ERR_TILE_CACHE_WRITE.build(file, e.getMessage()));
+    }
+  }
+
+  private void prune() throws IOException {
+    final List<Path> files;
+    try (final Stream<Path> stream = Files.list(this.folder)) {
+      files =
+          stream
+              .filter(path -> path.getFileName().toString().endsWith(".tiles"))
+              .collect(Collectors.toList());
+    }
+    final Map<Path, FileTime> modified = new HashMap<>();
+    long size = 0;
+    for (final Path path : files) {
+      modified.put(path, Files.getLastModifiedTime(path));
+      size += Files.size(path);
+    }
+    files.sort(Comparator.comparing(modified::get));
+    final FileTime expiry = FileTime.from(Instant.now().minus(MAX_AGE));
+    for (final Path path : files) {
+      if (size <= MAX_FOLDER_SIZE && modified.get(path).compareTo(expiry) >= 0) {
+        break;
+      }
+      size -= Files.size(path);
+      Files.deleteIfExists(path);
+    }
+  }
+
+  private void writeFile(@NotNull final Path file, @NotNull final Entry entry) throws IOException {
+    final byte[][][][] frames = entry.frames();
+    Files.createDirectories(this.folder);
+    final Path temp = Files.createTempFile(this.folder, "tiles", ".tmp");
+    try {
+      final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+      try (final DataOutputStream output =
+          new DataOutputStream(
+              new DeflaterOutputStream(
+                  new BufferedOutputStream(Files.newOutputStream(temp)), deflater))) {
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(frames[0].length);
+        output.writeInt(frames[0][0].length);
+        output.writeInt(frames.length);
+        for (int i = 0; i < frames.length; i++) {
+          output.writeInt(entry.delays()[i]);
+          for (final byte[][] row : frames[i]) {
+            for (final byte[] tile : row) {
+              output.write(tile);
+            }
+          }
+        }
+      } finally {
+        deflater.end();
+      }
+      this.move(temp, file);
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+  }
+
+  private void move(@NotNull final Path temp, @NotNull final Path file) throws IOException {
+    try {
+      Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+    } catch (final AtomicMoveNotSupportedException e) {
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private @NotNull Path getFile(@NotNull final String key) {
+    return this.folder.resolve(key + ".tiles");
+  }
+
+  record Entry(
+      byte @NotNull [] @NotNull [] @NotNull [] @NotNull [] frames, int @NotNull [] delays) {}
+}
@@ -46,6 +46,8 @@ public interface Locale {
   NullComponent MEDIA_PLAYER_RELEASE = () -> "Released media player!";
   NullComponent MEDIA_PLAYER_PAUSE = () -> "Paused media player!";
 
+  BiComponent<Integer, String> QUALITY_LEVEL_CHANGE = "Changed quality level to %s (%s)"::formatted;
+
   NullComponent SERVER_SOFTWARE_TIP = () ->
       """
 
@@ -71,9 +73,11 @@ public interface Locale {
   NullComponent ERR_HOLOVID = () -> "Holovid (https://holovid.glare.dev) is down! Contact PulseBeat_02 for information!";
 
   UniComponent<String> ERR_SERVER_UNSUPPORTED = "Current server implementation (%s) is not supported!"::formatted;
+  UniComponent<String> ERR_PRERENDER_READ = "Failed to read pre-rendered video! (%s)"::formatted;
   UniComponent<String> FINISHED_DEPENDENCY_LOAD = "Finished %s dependency installation and load!"::formatted;
 
   BiComponent<String, Path> BINARY_PATHS = "%s path: %s"::formatted;
+  BiComponent<Path, String> ERR_TILE_CACHE_WRITE = "Failed to cache image tiles at %s! (%s)"::formatted;
 
   TriComponent<String, Integer, Path> HTTP_INFO =
       """
@@ -3,32 +3,44 @@ package io.github.pulsebeat02.ezmediacore.natives;
 import com.sun.jna.Library;
 import com.sun.jna.Native;
 import com.sun.jna.Pointer;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+/**
+ * The dithering functions of the native library. Every function reads the lookup tables and the
+ * pixels through the given pointers and returns the palette index of each pixel, one byte per
+ * pixel. The returned memory is allocated by the library with {@code malloc} and owned by the
+ * caller, who has to free it exactly once with {@link Native#free(long)} after copying it, see
+ * {@link NativeDither}.
+ *
+ * <p>Direct buffers are passed as pointers to their memory, so the lookup tables and frames are
+ * not copied for the call the way Java arrays would be.
+ */
 public interface DitherLibC extends Library {
 
   DitherLibC INSTANCE = getInstance0();
 
   @NotNull
   Pointer filterLiteDither(
-      final int[] colors, final byte[] fullColors, final int[] buffer, final int width);
+      final IntBuffer colors, final ByteBuffer fullColors, final IntBuffer buffer, final int width);
 
   @NotNull
   Pointer floydSteinbergDither(
-      final int[] colors, final byte[] fullColors, final int[] buffer, final int width);
+      final IntBuffer colors, final ByteBuffer fullColors, final IntBuffer buffer, final int width);
 
   @NotNull
   Pointer randomDither(
-      final int[] colors,
-      final byte[] fullColors,
-      final int[] buffer,
+      final IntBuffer colors,
+      final ByteBuffer fullColors,
+      final IntBuffer buffer,
       final int width,
       final int weight);
 
   @NotNull
   Pointer simpleDither(
-      final int[] colors, final byte[] fullColors, final int[] buffer, final int width);
+      final IntBuffer colors, final ByteBuffer fullColors, final IntBuffer buffer, final int width);
 
   private static @Nullable DitherLibC getInstance0() {
     try {
@@ -0,0 +1,130 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.natives;
+
+import static io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil.getColorMap;
+import static io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil.getFullColorMap;
+
+import com.sun.jna.Native;
+import com.sun.jna.Pointer;
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
+import io.github.pulsebeat02.ezmediacore.dither.buffer.ByteBufCarrier;
+import io.github.pulsebeat02.ezmediacore.dither.buffer.DitherBuffers;
+import io.netty.buffer.ByteBuf;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Calls {@link DitherLibC} through direct buffers. The lookup tables are copied into native memory
+ * once and passed by pointer to every call, instead of JNA copying about ten megabytes of tables
+ * into and back out of native memory for each frame. Frames are copied once into a direct buffer
+ * owned by the calling thread, which spares the copy back JNA makes for arrays.
+ *
+ * <p>The palette indices returned by the library are copied into a pooled buffer owned by the
+ * returned carrier, and the native result is freed right after.
+ */
+public final class NativeDither {
+
+  private static final ThreadLocal<IntBuffer> PIXELS;
+  private static volatile Tables tables;
+
+  static {
+    PIXELS = ThreadLocal.withInitial(() -> allocateInts(0));
+  }
+
+  private NativeDither() {}
+
+  /**
+   * Dithers a frame with one of the functions of {@link DitherLibC}.
+   *
+   * @param buffer the pixels of the frame
+   * @param function the function to call, given the lookup tables and the frame
+   * @return the palette indices of the frame
+   */
+  public static @NotNull BufferCarrier dither(
+      final int @NotNull [] buffer, @NotNull final DitherFunction function) {
+    final Tables tables = getTables();
+    final IntBuffer pixels = getPixels(buffer);
+    final Pointer result = function.dither(tables.colors(), tables.fullColors(), pixels);
+    final ByteBuf data = DitherBuffers.allocate(buffer.length);
+    try {
+      result.read(0L, data.array(), data.arrayOffset(), buffer.length);
+    } catch (final RuntimeException e) {
+      data.release();
+      throw e;
+    } finally {
+      Native.free(Pointer.nativeValue(result));
+    }
+    return ByteBufCarrier.ofByteBufCarrier(data);
+  }
+
+  private static @NotNull IntBuffer getPixels(final int @NotNull [] buffer) {
+    IntBuffer pixels = PIXELS.get();
+    if (pixels.capacity() < buffer.length) {
+      pixels = allocateInts(buffer.length);
+      PIXELS.set(pixels);
+    }
+    pixels.put(0, buffer);
+    return pixels;
+  }
+
+  private static @NotNull Tables getTables() {
+    Tables current = tables;
+    if (current == null) {
+      synchronized (NativeDither.class) {
+        current = tables;
+        if (current == null) {
+          current = tables = createTables();
+        }
+      }
+    }
+    return current;
+  }
+
+  private static @NotNull Tables createTables() {
+    final int[] fullColorMap = getFullColorMap();
+    final byte[] colorMap = getColorMap();
+    final IntBuffer colors = allocateInts(fullColorMap.length).put(0, fullColorMap);
+    final ByteBuffer fullColors = ByteBuffer.allocateDirect(colorMap.length).put(0, colorMap);
+    return new Tables(colors, fullColors);
+  }
+
+  private static @NotNull IntBuffer allocateInts(final int length) {
+    return ByteBuffer.allocateDirect(length << 2).order(ByteOrder.nativeOrder()).asIntBuffer();
+  }
+
+  @FunctionalInterface
+  public interface DitherFunction {
+
+    @NotNull
+    Pointer dither(
+        @NotNull final IntBuffer colors,
+        @NotNull final ByteBuffer fullColors,
+        @NotNull final IntBuffer buffer);
+  }
+
+  private record Tables(@NotNull IntBuffer colors, @NotNull ByteBuffer fullColors) {}
+}
@@ -0,0 +1,90 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Cuts the {@code rawvideo} output of FFmpeg into frames of a fixed size. FFmpeg writes the pipe
+ * in chunks that have nothing to do with frame boundaries, so the bytes are collected into a
+ * reused buffer and every completed frame is handed to {@link #onFrame(ByteBuffer)}.
+ */
+public abstract class RawFrameStream extends OutputStream {
+
+  private final ByteBuffer frame;
+
+  /**
+   * Creates a stream for frames of the given size.
+   *
+   * @param length the size of a frame in bytes
+   */
+  protected RawFrameStream(final int length) {
+    checkArgument(length > 0, "Frame length must be greater than 0!");
+    this.frame = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  @Override
+  public void write(final int b) throws IOException {
+    this.frame.put((byte) b);
+    this.flushFrame();
+  }
+
+  @Override
+  public void write(final byte @NotNull [] b, int off, int len) throws IOException {
+    while (len > 0) {
+      final int count = Math.min(len, this.frame.remaining());
+      this.frame.put(b, off, count);
+      off += count;
+      len -= count;
+      this.flushFrame();
+    }
+  }
+
+  private void flushFrame() throws IOException {
+    if (this.frame.hasRemaining()) {
+      return;
+    }
+    this.frame.flip();
+    try {
+      this.onFrame(this.frame);
+    } finally {
+      this.frame.clear();
+    }
+  }
+
+  /**
+   * Handles a completed frame. The buffer is little endian, positioned at the start of the frame
+   * and backed by an array. It is reused for the next frame once this method returns.
+   *
+   * @param frame the bytes of the frame
+   * @throws IOException if the frame could not be handled
+   */
+  protected abstract void onFrame(@NotNull ByteBuffer frame) throws IOException;
+}
@@ -1,30 +1,26 @@
 package io.github.pulsebeat02.ezmediacore.player.buffered;
 
 import io.github.pulsebeat02.ezmediacore.callback.Callback;
+import io.github.pulsebeat02.ezmediacore.callback.PreparedCallback;
 import io.github.pulsebeat02.ezmediacore.callback.Viewers;
 import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
 import io.github.pulsebeat02.ezmediacore.player.FrameConfiguration;
 import io.github.pulsebeat02.ezmediacore.player.MediaPlayer;
 import io.github.pulsebeat02.ezmediacore.player.SoundKey;
 import io.github.pulsebeat02.ezmediacore.player.input.InputParser;
-import io.github.pulsebeat02.ezmediacore.utility.misc.Try;
-import io.github.pulsebeat02.ezmediacore.utility.tuple.Pair;
-import java.time.Instant;
-import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
-import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 public abstract class BufferedMediaPlayer extends MediaPlayer implements BufferedPlayer {
 
-  private final ArrayBlockingQueue<Pair<int[], Long>> frames;
+  private final FrameRing<?> frames;
+  private final FrameWriter writer;
   private final BufferConfiguration buffer;
   private final AtomicBoolean status;
-  private final Runnable frameDisplayer;
-  private final Runnable frameWatchdog;
+  private final FramePresenter<?> presenter;
 
   private long start;
   private CompletableFuture<Void> display;
@@ -41,9 +37,18 @@ public abstract class BufferedMediaPlayer extends MediaPlayer implements Buffere
     super(callback, viewers, pixelDimension, fps, key, parser);
     this.buffer = buffer;
     this.status = new AtomicBoolean(false);
-    this.frames = new ArrayBlockingQueue<>(this.calculateCapacity());
-    this.frameDisplayer = this.getDisplayRunnable();
-    this.frameWatchdog = this.getSkipRunnable();
+    final int capacity = this.calculateCapacity();
+    if (callback instanceof PreparedCallback prepared) {
+      final FrameRing<byte[]> frames = FrameRing.ofBytes(capacity);
+      this.frames = frames;
+      this.writer = new PreparedFrameWriter(frames, prepared);
+      this.presenter = new FramePresenter<>(this, frames, prepared::present, fps.getFps());
+    } else {
+      final FrameRing<int[]> frames = FrameRing.ofPixels(capacity);
+      this.frames = frames;
+      this.writer = new DirectFrameWriter(frames);
+      this.presenter = new FramePresenter<>(this, frames, callback::process, fps.getFps());
+    }
   }
 
   private int calculateCapacity() {
@@ -62,17 +67,45 @@ public abstract class BufferedMediaPlayer extends MediaPlayer implements Buffere
 
   @Override
   public boolean addFrame(final int @NotNull [] data, final long timestamp) {
-    while (this.frames.remainingCapacity() <= 1) {
-      Try.sleep(TimeUnit.MILLISECONDS, 5);
+    final int[] slot = this.claimFrame(data.length);
+    if (slot == null) {
+      return false;
+    }
+    System.arraycopy(data, 0, slot, 0, data.length);
+    return this.publishFrame(timestamp);
+  }
+
+  /**
+   * Claims the array the next frame is written into, waiting while the buffer is full. Must be
+   * followed by {@link #publishFrame(long)}. For a {@link PreparedCallback} the array is a scratch
+   * frame and the frame is prepared when it is published.
+   *
+   * @param length the amount of pixels of the frame
+   * @return the slot, or null if the decoder was interrupted
+   */
+  int @Nullable [] claimFrame(final int length) {
+    try {
+      return this.writer.claim(length);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+  }
+
+  boolean publishFrame(final long timestamp) {
+    try {
+      this.writer.publish(timestamp);
+      return true;
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
     }
-    return this.frames.add(Pair.ofPair(data, timestamp));
   }
 
   @Override
   public void bufferFrames() {
-    final int target = (this.buffer.getBuffer() * this.getFrameConfiguration().getFps()) >> 1;
-    // noinspection StatementWithEmptyBody
-    while (this.frames.size() >= target) {}
+    this.frames.awaitSize(
+        this.frames.getCapacity() >> 1, this.buffer.getBuffer(), TimeUnit.SECONDS);
   }
 
   @Override
@@ -85,53 +118,23 @@ public abstract class BufferedMediaPlayer extends MediaPlayer implements Buffere
   @Override
   public void startDisplayRunnable() {
     this.cancelFuture(this.display);
-    this.display = CompletableFuture.runAsync(this.frameDisplayer);
+    this.display = CompletableFuture.runAsync(this.presenter);
   }
 
+  /**
+   * Frame skipping is part of the presenter started by {@link #startDisplayRunnable()}. This only
+   * stops a watchdog left over from an older start.
+   */
   @Override
   public void startWatchdogRunnable() {
     this.cancelFuture(this.watchdog);
-    this.watchdog = CompletableFuture.runAsync(this.frameWatchdog);
+    this.watchdog = null;
   }
 
   @Override
   public void forceStop() {
     this.status.set(false);
-  }
-
-  @Contract(pure = true)
-  private @NotNull Runnable getDisplayRunnable() {
-    return () -> {
-      final Callback callback = this.getCallback();
-      while (this.status.get()) {
-        try {
-          // process current frame
-          callback.process(this.frames.take().getKey());
-        } catch (final InterruptedException ignored) {
-        }
-      }
-    };
-  }
-
-  @Contract(pure = true)
-  private @NotNull Runnable getSkipRunnable() {
-    return () -> {
-      while (this.status.get()) {
-        // skip frames if necessary
-        // For example, if the passed time is 40 ms, and the time of the
-        // current frame is 30 ms, we have to skip. If it is equal, we are
-        // bound to get behind, so skip
-        try {
-          final long passed = Instant.now().toEpochMilli() - this.start;
-          Pair<int[], Long> skip = this.frames.take();
-          while (skip.getValue() <= passed) {
-            this.frames.take();
-            skip = this.frames.take();
-          }
-        } catch (final InterruptedException ignored) {
-        }
-      }
-    };
+    this.frames.wakeUp();
   }
 
   @Override
@@ -153,4 +156,24 @@ public abstract class BufferedMediaPlayer extends MediaPlayer implements Buffere
   public boolean isExecuting() {
     return this.status.get();
   }
+
+  @Override
+  public double getPresentationDrift() {
+    return this.presenter.getDrift();
+  }
+
+  @Override
+  public long getPresentedFrames() {
+    return this.presenter.getPresentedFrames();
+  }
+
+  @Override
+  public long getLateFrames() {
+    return this.presenter.getLateFrames();
+  }
+
+  @Override
+  public long getDroppedFrames() {
+    return this.presenter.getDroppedFrames();
+  }
 }
@@ -57,8 +57,13 @@ public final class FFmpegFrameConsumer implements FrameConsumer {
       return;
     }
 
-    // add to queue
-    this.player.addFrame(VideoFrameUtils.getRGBParallel(image), this.calculateTimeStamp(frame));
+    // write straight into the next free frame slot
+    final int[] slot = this.player.claimFrame(image.getWidth() * image.getHeight());
+    if (slot == null) {
+      return;
+    }
+    VideoFrameUtils.getRGBParallel(image, slot);
+    this.player.publishFrame(this.calculateTimeStamp(frame));
   }
 
   private long calculateTimeStamp(@NotNull final Frame frame) {
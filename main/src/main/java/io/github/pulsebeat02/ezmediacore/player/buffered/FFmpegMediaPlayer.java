@@ -30,11 +30,17 @@ import com.github.kokorin.jaffree.ffmpeg.FFmpeg;
 import com.github.kokorin.jaffree.ffmpeg.FFmpegResultFuture;
 import com.github.kokorin.jaffree.ffmpeg.FrameConsumer;
 import com.github.kokorin.jaffree.ffmpeg.FrameOutput;
+import com.github.kokorin.jaffree.ffmpeg.PipeOutput;
+import com.github.kokorin.jaffree.ffmpeg.UrlInput;
 import io.github.pulsebeat02.ezmediacore.callback.Callback;
 import io.github.pulsebeat02.ezmediacore.callback.DelayConfiguration;
 import io.github.pulsebeat02.ezmediacore.callback.Identifier;
+import io.github.pulsebeat02.ezmediacore.callback.MediaSource;
+import io.github.pulsebeat02.ezmediacore.callback.MediaSource.Output;
 import io.github.pulsebeat02.ezmediacore.callback.Viewers;
+import io.github.pulsebeat02.ezmediacore.callback.implementation.MapCallbackDispatcher;
 import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.palette.FFmpegPaletteDither;
 import io.github.pulsebeat02.ezmediacore.executor.ExecutorProvider;
 import io.github.pulsebeat02.ezmediacore.locale.Locale;
 import io.github.pulsebeat02.ezmediacore.player.FrameConfiguration;
@@ -47,6 +53,9 @@ import io.github.pulsebeat02.ezmediacore.player.input.InputParser;
 import io.github.pulsebeat02.ezmediacore.utility.media.RequestUtils;
 import io.github.pulsebeat02.ezmediacore.utility.tuple.Pair;
 import io.github.pulsebeat02.ezmediacore.utility.unsafe.UnsafeUtils;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -88,6 +97,8 @@ process too, so we must account for that as well.
  */
 public final class FFmpegMediaPlayer extends BufferedMediaPlayer {
 
+  private final boolean rawOutput;
+  private final FFmpegPaletteDither palette;
   private volatile FFmpeg ffmpeg;
   private volatile FFmpegResultFuture future;
 
@@ -97,7 +108,8 @@ public final class FFmpegMediaPlayer extends BufferedMediaPlayer {
       @NotNull final Dimension pixelDimension,
       @NotNull final BufferConfiguration buffer,
       @NotNull final FrameConfiguration fps,
-      @Nullable final SoundKey key) {
+      @Nullable final SoundKey key,
+      final boolean rawOutput) {
     super(
         callback,
         viewers,
@@ -106,6 +118,8 @@ public final class FFmpegMediaPlayer extends BufferedMediaPlayer {
         fps,
         key,
         new FFmpegMediaPlayerInputParser(callback.getCore()));
+    this.rawOutput = rawOutput;
+    this.palette = this.getPaletteDither(callback);
   }
 
   @Override
@@ -130,8 +144,13 @@ public final class FFmpegMediaPlayer extends BufferedMediaPlayer {
     final long ms = delay.getDelay() * 1000;
     this.ffmpeg = new FFmpeg(this.getCore().getFFmpegPath().toAbsolutePath());
     this.addInput(ms);
-    this.addOutput();
-    this.addDimensionArguments();
+    if (this.palette != null) {
+      this.addPaletteInput();
+      this.addIndexedOutput();
+    } else {
+      this.addOutput();
+      this.addDimensionArguments();
+    }
     this.addMiscArguments();
     this.getCore()
         .getLogger()
@@ -154,6 +173,10 @@ public final class FFmpegMediaPlayer extends BufferedMediaPlayer {
   }
 
   private void addOutput() {
+    if (this.rawOutput) {
+      this.addRawOutput();
+      return;
+    }
     this.ffmpeg.addOutput(
         FrameOutput.withConsumer(this.getFrameConsumer())
             .setFrameRate(this.getFrameConfiguration().getFps())
@@ -162,6 +185,87 @@ public final class FFmpegMediaPlayer extends BufferedMediaPlayer {
             .disableStream(StreamType.DATA));
   }
 
+  private void addRawOutput() {
+    this.addPipeOutput("bgra", false);
+  }
+
+  private void addIndexedOutput() {
+    final Dimension dimension = this.getDimensions();
+    this.ffmpeg.setComplexFilter(
+        "[0:v]scale=%s:%s[scaled];[scaled][1:v]%s"
+            .formatted(dimension.getWidth(), dimension.getHeight(), this.palette.getFilter()));
+    this.addPipeOutput("pal8", true);
+  }
+
+  private void addPipeOutput(@NotNull final String format, final boolean indexed) {
+    final Dimension dimension = this.getDimensions();
+    final int fps = this.getFrameConfiguration().getFps();
+    this.ffmpeg.addOutput(
+        PipeOutput.pumpTo(
+                new FFmpegRawFrameConsumer(
+                    this, dimension.getWidth(), dimension.getHeight(), fps, indexed))
+            .setFormat("rawvideo")
+            .setFrameRate(fps)
+            .addArguments("-pix_fmt", format)
+            .disableStream(StreamType.AUDIO)
+            .disableStream(StreamType.SUBTITLE)
+            .disableStream(StreamType.DATA));
+  }
+
+  private void addPaletteInput() {
+    try {
+      this.ffmpeg.addInput(
+          UrlInput.fromPath(FFmpegPaletteDither.writePalette(this.getCore().getImagePath())));
+    } catch (final IOException e) {
+      throw new AssertionError(e);
+    }
+  }
+
+  /**
+   * Finds the palette dither used by the callback, looking through the outputs of every {@link
+   * MediaSource} in between. Indexed frames are passed to every callback in the tree, so either all
+   * of them dither with the same {@code paletteuse} filter or none may use it.
+   *
+   * @param callback the callback of this player
+   * @return the shared palette dither, or null if no callback uses one
+   * @throws IllegalStateException if only some callbacks use a palette dither, or with different
+   *     modes
+   */
+  private @Nullable FFmpegPaletteDither getPaletteDither(@NotNull final Callback callback) {
+    final List<Callback> leaves = new ArrayList<>();
+    this.collectLeaves(callback, leaves);
+    FFmpegPaletteDither palette = null;
+    boolean other = false;
+    for (final Callback leaf : leaves) {
+      if (leaf instanceof MapCallbackDispatcher dispatcher
+          && dispatcher.getAlgorithm() instanceof FFmpegPaletteDither dither) {
+        if (palette != null && palette.getMode() != dither.getMode()) {
+          throw new IllegalStateException(
+              "Every callback must use the same FFmpeg palette dithering mode!");
+        }
+        palette = dither;
+      } else {
+        other = true;
+      }
+    }
+    if (palette != null && other) {
+      throw new IllegalStateException(
+          "FFmpeg palette dithering cannot be mixed with other callbacks in one player!");
+    }
+    return palette;
+  }
+
+  private void collectLeaves(
+      @NotNull final Callback callback, @NotNull final List<Callback> leaves) {
+    if (callback instanceof MediaSource source) {
+      for (final Output output : source.getOutputs()) {
+        this.collectLeaves(output.callback(), leaves);
+      }
+    } else {
+      leaves.add(callback);
+    }
+  }
+
   private void addInput(final long ms) {
 
     final InputParser parser = this.getInputParser();
@@ -237,6 +341,7 @@ public final class FFmpegMediaPlayer extends BufferedMediaPlayer {
   public static final class Builder extends VideoBuilder {
 
     private BufferConfiguration bufferSize = BufferConfiguration.BUFFER_15;
+    private boolean rawOutput;
 
     public Builder() {}
 
@@ -274,6 +379,19 @@ public final class FFmpegMediaPlayer extends BufferedMediaPlayer {
       return this;
     }
 
+    /**
+     * Lets FFmpeg write raw {@code bgra} pixels to a pipe instead of decoding every frame into a
+     * {@link java.awt.image.BufferedImage}.
+     *
+     * @param rawOutput whether to use the raw pixel pipe
+     * @return the builder
+     */
+    @Contract("_ -> this")
+    public @NotNull Builder rawOutput(final boolean rawOutput) {
+      this.rawOutput = rawOutput;
+      return this;
+    }
+
     @Contract(" -> new")
     @Override
     public @NotNull MediaPlayer build() {
@@ -285,7 +403,8 @@ public final class FFmpegMediaPlayer extends BufferedMediaPlayer {
           this.getDims(),
           this.bufferSize,
           this.getRate(),
-          this.getKey());
+          this.getKey(),
+          this.rawOutput);
     }
   }
 }
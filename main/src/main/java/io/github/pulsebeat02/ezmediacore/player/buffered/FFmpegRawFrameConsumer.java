@@ -0,0 +1,85 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.buffered;
+
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.palette.FFmpegPaletteDither;
+import io.github.pulsebeat02.ezmediacore.player.RawFrameStream;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Receives the {@code rawvideo} output of FFmpeg in {@code bgra} and copies every completed frame
+ * into the player's frame ring. A little endian {@code bgra} pixel already is a packed ARGB int,
+ * so no color conversion or {@link java.awt.image.BufferedImage} is involved. In indexed mode
+ * the output is {@code pal8} from {@code paletteuse} instead, where every byte is a palette index
+ * and each frame is trailed by its 1024 byte palette. As the output is produced at a constant
+ * frame rate, timestamps come from the frame index.
+ */
+final class FFmpegRawFrameConsumer extends RawFrameStream {
+
+  private final FFmpegMediaPlayer player;
+  private final int pixels;
+  private final boolean indexed;
+  private final double interval;
+  private long index;
+
+  FFmpegRawFrameConsumer(
+      @NotNull final FFmpegMediaPlayer player,
+      final int width,
+      final int height,
+      final int fps,
+      final boolean indexed) {
+    super(indexed ? width * height + 1024 : width * height << 2);
+    this.player = player;
+    this.pixels = width * height;
+    this.indexed = indexed;
+    this.interval = 1000.0 / fps;
+  }
+
+  @Override
+  protected void onFrame(@NotNull final ByteBuffer frame) {
+    if (this.index == 0) {
+      this.player.setStart(Instant.now().toEpochMilli());
+      this.player.playAudio();
+    }
+    final int[] slot = this.player.claimFrame(this.pixels);
+    if (slot != null) {
+      this.copyFrame(frame, slot);
+      this.player.publishFrame((long) (this.index * this.interval));
+    }
+    this.index++;
+  }
+
+  private void copyFrame(@NotNull final ByteBuffer frame, final int @NotNull [] slot) {
+    if (!this.indexed) {
+      frame.asIntBuffer().get(slot);
+      return;
+    }
+    final byte[] indices = frame.array();
+    for (int i = 0; i < this.pixels; i++) {
+      slot[i] = FFmpegPaletteDither.getMapIndex(indices[i] & 0xFF);
+    }
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.buffered;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Presents buffered frames at {@code start + pts} on a single thread. The presenter parks until
+ * the oldest frame is due; if it falls behind, every due frame except the newest one is dropped
+ * so playback catches up without showing stale frames.
+ *
+ * @param <T> the array type of a frame
+ */
+final class FramePresenter<T> implements Runnable {
+
+  private static final double SMOOTHING = 0.1;
+
+  private final BufferedMediaPlayer player;
+  private final FrameRing<T> frames;
+  private final Consumer<T> output;
+  private final long interval;
+
+  private volatile double drift;
+  private volatile long presented;
+  private volatile long late;
+  private volatile long dropped;
+
+  FramePresenter(
+      @NotNull final BufferedMediaPlayer player,
+      @NotNull final FrameRing<T> frames,
+      @NotNull final Consumer<T> output,
+      final int fps) {
+    this.player = player;
+    this.frames = frames;
+    this.output = output;
+    this.interval = 1000L / Math.max(1, fps);
+  }
+
+  @Override
+  public void run() {
+    final FrameRing<T> frames = this.frames;
+    while (this.player.isExecuting()) {
+      if (frames.peek() == null) {
+        continue;
+      }
+      final long elapsed = System.currentTimeMillis() - this.player.getStart();
+      while (frames.size() > 1 && frames.peekTimestamp(1) <= elapsed) {
+        frames.release();
+        this.dropped++;
+      }
+      final long lateness = elapsed - frames.peekTimestamp();
+      if (lateness < 0) {
+        frames.parkConsumer(TimeUnit.MILLISECONDS.toNanos(-lateness));
+        continue; // woken up early or due now, re-check against the clock
+      }
+      if (lateness > this.interval) {
+        this.late++;
+      }
+      this.drift += (lateness - this.drift) * SMOOTHING;
+      this.output.accept(frames.peek());
+      frames.release();
+      this.presented++;
+    }
+  }
+
+  /**
+   * Gets the smoothed delay between a frame's due time and the moment it was presented.
+   *
+   * @return the drift in milliseconds
+   */
+  double getDrift() {
+    return this.drift;
+  }
+
+  long getPresentedFrames() {
+    return this.presented;
+  }
+
+  long getLateFrames() {
+    return this.late;
+  }
+
+  long getDroppedFrames() {
+    return this.dropped;
+  }
+}
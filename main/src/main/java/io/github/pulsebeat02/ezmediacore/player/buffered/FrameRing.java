@@ -0,0 +1,216 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.buffered;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Single producer, single consumer ring of reusable frame slots. The decoder claims a slot, writes
+ * the frame into it and publishes it with its timestamp; the presenter peeks at the oldest slot
+ * and releases it once the frame was processed. Slots are allocated on first use and then reused,
+ * so a steady stream of equally sized frames allocates nothing.
+ *
+ * <p>Waiting threads park instead of spinning and are unparked by the opposite side.
+ *
+ * @param <T> the array type of a slot
+ */
+final class FrameRing<T> {
+
+  private final Object[] slots;
+  private final long[] timestamps;
+  private final int capacity;
+  private final IntFunction<T> allocator;
+  private final ToIntFunction<T> length;
+
+  private volatile long head; // next slot to read, only written by the consumer
+  private volatile long tail; // next slot to write, only written by the producer
+
+  private volatile Thread producer;
+  private volatile Thread consumer;
+  private volatile Thread filler;
+  private volatile int fillTarget;
+
+  FrameRing(
+      final int capacity,
+      @NotNull final IntFunction<T> allocator,
+      @NotNull final ToIntFunction<T> length) {
+    this.capacity = Math.max(2, capacity);
+    this.slots = new Object[this.capacity];
+    this.timestamps = new long[this.capacity];
+    this.allocator = allocator;
+    this.length = length;
+  }
+
+  static @NotNull FrameRing<int[]> ofPixels(final int capacity) {
+    return new FrameRing<>(capacity, int[]::new, slot -> slot.length);
+  }
+
+  static @NotNull FrameRing<byte[]> ofBytes(final int capacity) {
+    return new FrameRing<>(capacity, byte[]::new, slot -> slot.length);
+  }
+
+  /**
+   * Waits until a slot is free and returns it for writing. The slot is only visible to the
+   * consumer after {@link #publish(long)} was called.
+   *
+   * @param length the length of the frame
+   * @return the slot to write the frame into
+   * @throws InterruptedException if the producer was interrupted while waiting
+   */
+  @NotNull
+  T claim(final int length) throws InterruptedException {
+    final long tail = this.tail;
+    while (tail - this.head >= this.capacity) {
+      this.producer = Thread.currentThread();
+      if (tail - this.head >= this.capacity) {
+        LockSupport.park(this);
+      }
+      this.producer = null;
+      if (Thread.interrupted()) {
+        throw new InterruptedException();
+      }
+    }
+    final int index = (int) (tail % this.capacity);
+    T slot = this.getSlot(index);
+    if (slot == null || this.length.applyAsInt(slot) != length) {
+      slot = this.allocator.apply(length);
+      this.slots[index] = slot;
+    }
+    return slot;
+  }
+
+  void publish(final long timestamp) {
+    final long tail = this.tail;
+    this.timestamps[(int) (tail % this.capacity)] = timestamp;
+    this.tail = tail + 1;
+    LockSupport.unpark(this.consumer);
+    final Thread filler = this.filler;
+    if (filler != null && tail + 1 - this.head >= this.fillTarget) {
+      LockSupport.unpark(filler);
+    }
+  }
+
+  /**
+   * Returns the oldest published frame without removing it, parking while the ring is empty.
+   * Returns null if the consumer was woken up by {@link #wakeUp()} before a frame arrived.
+   *
+   * @return the oldest frame, or null if none is available
+   */
+  @Nullable
+  T peek() {
+    if (this.head == this.tail) {
+      this.consumer = Thread.currentThread();
+      if (this.head == this.tail) {
+        LockSupport.park(this);
+      }
+      this.consumer = null;
+      if (this.head == this.tail) {
+        return null;
+      }
+    }
+    return this.getSlot((int) (this.head % this.capacity));
+  }
+
+  @SuppressWarnings("unchecked")
+  private @Nullable T getSlot(final int index) {
+    return (T) this.slots[index];
+  }
+
+  /**
+   * Parks the consumer until the timeout elapsed, a frame was published or {@link #wakeUp()} was
+   * called.
+   *
+   * @param nanos the maximum time to park
+   */
+  void parkConsumer(final long nanos) {
+    this.consumer = Thread.currentThread();
+    LockSupport.parkNanos(this, nanos);
+    this.consumer = null;
+  }
+
+  long peekTimestamp() {
+    return this.peekTimestamp(0);
+  }
+
+  /**
+   * Gets the timestamp of a buffered frame without removing anything.
+   *
+   * @param offset the position relative to the oldest frame, less than {@link #size()}
+   * @return the timestamp of the frame
+   */
+  long peekTimestamp(final int offset) {
+    return this.timestamps[(int) ((this.head + offset) % this.capacity)];
+  }
+
+  void release() {
+    this.head = this.head + 1;
+    LockSupport.unpark(this.producer);
+  }
+
+  int size() {
+    return (int) (this.tail - this.head);
+  }
+
+  int getCapacity() {
+    return this.capacity;
+  }
+
+  /**
+   * Parks the calling thread until at least {@code target} frames are buffered or the timeout
+   * elapsed, whichever happens first.
+   *
+   * @param target the amount of frames to wait for
+   * @param timeout the maximum time to wait
+   * @param unit the unit of the timeout
+   */
+  void awaitSize(final int target, final long timeout, @NotNull final TimeUnit unit) {
+    final int goal = Math.min(target, this.capacity);
+    final long deadline = System.nanoTime() + unit.toNanos(timeout);
+    this.fillTarget = goal;
+    this.filler = Thread.currentThread();
+    try {
+      long remaining;
+      while (this.size() < goal && (remaining = deadline - System.nanoTime()) > 0) {
+        LockSupport.parkNanos(this, remaining);
+        if (Thread.currentThread().isInterrupted()) {
+          return;
+        }
+      }
+    } finally {
+      this.filler = null;
+    }
+  }
+
+  /** Wakes up every parked thread so it can re-check whether playback was stopped. */
+  void wakeUp() {
+    LockSupport.unpark(this.producer);
+    LockSupport.unpark(this.consumer);
+    LockSupport.unpark(this.filler);
+  }
+}
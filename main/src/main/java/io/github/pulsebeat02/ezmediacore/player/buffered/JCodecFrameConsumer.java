@@ -45,9 +45,14 @@ public class JCodecFrameConsumer implements Runnable {
                 dimensions.getWidth(),
                 dimensions.getHeight());
 
-        // add to queue
-        this.player.addFrame(
-            VideoFrameUtils.getRGBParallel(image.get()), this.calculateTimestamp());
+        // write straight into the next free frame slot
+        final BufferedImage resized = image.get();
+        final int[] slot = this.player.claimFrame(resized.getWidth() * resized.getHeight());
+        if (slot == null) {
+          break;
+        }
+        VideoFrameUtils.getRGBParallel(resized, slot);
+        this.player.publishFrame(this.calculateTimestamp());
       }
     } catch (final IOException | ExecutionException | InterruptedException e) {
       throw new AssertionError(e);
@@ -0,0 +1,85 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.buffered;
+
+import io.github.pulsebeat02.ezmediacore.callback.MapCallback;
+import io.github.pulsebeat02.ezmediacore.callback.PreparedCallback;
+import io.github.pulsebeat02.ezmediacore.callback.quality.QualityController;
+import io.github.pulsebeat02.ezmediacore.callback.quality.QualityStage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Lets decoders write pixels into a single scratch frame, which is prepared by the callback on the
+ * decoding thread. Only the prepared bytes are buffered, which for map callbacks is a quarter of
+ * the memory the pixels would take.
+ *
+ * <p>If the callback adapts its quality, the time from claiming the scratch frame until it is
+ * published is recorded as the decoding time. A decoder claims the frame once its bytes have
+ * arrived, so the time spent waiting for the next frame from a paced stream is not included, and
+ * neither is the time spent waiting for room in the buffer.
+ */
+final class PreparedFrameWriter implements FrameWriter {
+
+  private final FrameRing<byte[]> frames;
+  private final PreparedCallback callback;
+  private final QualityController quality;
+  private int[] frame;
+  private long claimed;
+
+  PreparedFrameWriter(
+      @NotNull final FrameRing<byte[]> frames, @NotNull final PreparedCallback callback) {
+    this(frames, callback, callback instanceof MapCallback map ? map.getQualityController() : null);
+  }
+
+  PreparedFrameWriter(
+      @NotNull final FrameRing<byte[]> frames,
+      @NotNull final PreparedCallback callback,
+      @Nullable final QualityController quality) {
+    this.frames = frames;
+    this.callback = callback;
+    this.quality = quality;
+    this.frame = new int[0];
+  }
+
+  @Override
+  public int @NotNull [] claim(final int length) {
+    if (this.frame.length != length) {
+      this.frame = new int[length];
+    }
+    this.claimed = System.nanoTime();
+    return this.frame;
+  }
+
+  @Override
+  public void publish(final long timestamp) throws InterruptedException {
+    if (this.quality != null) {
+      this.quality.record(QualityStage.DECODE, System.nanoTime() - this.claimed);
+    }
+    final int[] frame = this.frame;
+    final byte[] slot = this.frames.claim(this.callback.getPreparedLength(frame.length));
+    this.callback.prepare(frame, slot);
+    this.frames.publish(timestamp);
+  }
+}
@@ -0,0 +1,123 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.external;
+
+import io.github.pulsebeat02.ezmediacore.executor.ExecutorProvider;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Triple buffer between a render thread and a worker which processes the frames. The render
+ * thread copies every frame into its back slot and swaps it with the middle slot, while the
+ * worker swaps the middle slot with its front slot whenever a new frame is waiting. Neither side
+ * ever waits for the other; if the worker falls behind, the frames in between are dropped and it
+ * continues with the latest one.
+ *
+ * <p>Each start of the worker gets a new generation, so a worker which is still finishing a frame
+ * after {@link #stop()} exits instead of running next to its replacement.
+ */
+final class FrameHandoff {
+
+  private static final int INDEX = 0b011;
+  private static final int FRESH = 0b100;
+
+  private final Consumer<int[]> consumer;
+  private final int[][] slots;
+  private final AtomicInteger middle;
+  private final AtomicInteger generation;
+
+  private int back; // only used by the render thread
+  private int front; // only used by the worker
+  private volatile boolean running;
+  private volatile Thread worker;
+
+  FrameHandoff(@NotNull final Consumer<int[]> consumer, final int length) {
+    this.consumer = consumer;
+    this.slots = new int[3][length];
+    this.back = 0;
+    this.middle = new AtomicInteger(1);
+    this.front = 2;
+    this.generation = new AtomicInteger();
+  }
+
+  /**
+   * Copies a frame into the back slot and hands it over to the worker, which is started if it is
+   * not running yet. Called from the render thread.
+   *
+   * @param frame the pixels of the frame
+   */
+  void offer(final int @NotNull [] frame) {
+    final int[] slot = this.slots[this.back];
+    System.arraycopy(frame, 0, slot, 0, Math.min(frame.length, slot.length));
+    final int previous = this.middle.getAndSet(this.back | FRESH);
+    this.back = previous & INDEX;
+    if (this.running) {
+      LockSupport.unpark(this.worker);
+    } else {
+      this.start();
+    }
+  }
+
+  private synchronized void start() {
+    if (this.running) {
+      return;
+    }
+    this.running = true;
+    final int generation = this.generation.incrementAndGet();
+    CompletableFuture.runAsync(() -> this.process(generation), ExecutorProvider.ENCODER_HANDLER);
+  }
+
+  private void process(final int generation) {
+    synchronized (this.slots) {
+      this.worker = Thread.currentThread();
+      try {
+        while (this.generation.get() == generation) {
+          if ((this.middle.get() & FRESH) == 0) {
+            LockSupport.park(this);
+            continue;
+          }
+          this.front = this.middle.getAndSet(this.front) & INDEX;
+          this.consumer.accept(this.slots[this.front]);
+        }
+      } finally {
+        this.worker = null;
+      }
+    }
+  }
+
+  /** Stops the worker once it finished the frame it is processing. */
+  synchronized void stop() {
+    this.running = false;
+    this.generation.incrementAndGet();
+    LockSupport.unpark(this.worker);
+  }
+
+  @NotNull
+  Consumer<int[]> getConsumer() {
+    return this.consumer;
+  }
+}
@@ -111,6 +111,7 @@ public final class VLCMediaPlayer extends MediaPlayer implements ConsumablePlaye
     super.pause();
     this.stopAudio();
     this.player.controls().stop();
+    this.videoCallback.stop();
   }
 
   @Override
@@ -141,6 +142,7 @@ public final class VLCMediaPlayer extends MediaPlayer implements ConsumablePlaye
     super.release();
     if (this.player != null) {
       this.player.controls().stop();
+      this.videoCallback.stop();
       this.logger.release();
       this.player.release();
       this.factory.release();
@@ -243,6 +245,7 @@ public final class VLCMediaPlayer extends MediaPlayer implements ConsumablePlaye
   @Override
   public void setCustomVideoAdapter(@NotNull final Consumer<int[]> pixels) {
     this.checkIfReleased();
+    this.videoCallback.stop();
     this.videoCallback = new MinecraftVideoRenderCallback(pixels);
     this.player.videoSurface().set(this.getSurface());
   }
@@ -310,9 +313,13 @@ public final class VLCMediaPlayer extends MediaPlayer implements ConsumablePlaye
     }
   }
 
+  /**
+   * Hands the frames rendered by libvlc over to a worker, so dithering and sending packets never
+   * block the decoder of VLC and the buffer VLC renders into is never read while it is rewritten.
+   */
   private class MinecraftVideoRenderCallback extends RenderCallbackAdapter {
 
-    private final Consumer<int[]> callback;
+    private final FrameHandoff handoff;
 
     MinecraftVideoRenderCallback(@NotNull final Consumer<int[]> consumer) {
       this(consumer, VLCMediaPlayer.super.getDimensions().getWidth(),
@@ -321,17 +328,21 @@ public final class VLCMediaPlayer extends MediaPlayer implements ConsumablePlaye
 
     MinecraftVideoRenderCallback(@NotNull final Consumer<int[]> consumer, final int width, final int height) {
       super(new int[height * width]);
-      this.callback = consumer;
+      this.handoff = new FrameHandoff(consumer, height * width);
     }
 
     @Override
     protected void onDisplay(
         final uk.co.caprica.vlcj.player.base.MediaPlayer mediaPlayer, final int[] buffer) {
-      this.callback.accept(buffer);
+      this.handoff.offer(buffer);
+    }
+
+    public void stop() {
+      this.handoff.stop();
     }
 
     public @NotNull Consumer<int[]> getCallback() {
-      return this.callback;
+      return this.handoff.getConsumer();
     }
   }
 
@@ -0,0 +1,208 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.prerender;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.github.kokorin.jaffree.JaffreeException;
+import com.github.kokorin.jaffree.LogLevel;
+import com.github.kokorin.jaffree.StreamType;
+import com.github.kokorin.jaffree.ffmpeg.BaseInput;
+import com.github.kokorin.jaffree.ffmpeg.FFmpeg;
+import com.github.kokorin.jaffree.ffmpeg.PipeOutput;
+import io.github.pulsebeat02.ezmediacore.MediaLibraryCore;
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
+import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
+import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.executor.ExecutorProvider;
+import io.github.pulsebeat02.ezmediacore.player.FrameConfiguration;
+import io.github.pulsebeat02.ezmediacore.player.RawFrameStream;
+import io.github.pulsebeat02.ezmediacore.player.input.FFmpegMediaPlayerInputParser;
+import io.github.pulsebeat02.ezmediacore.player.input.Input;
+import io.github.pulsebeat02.ezmediacore.utility.media.RequestUtils;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.CompletableFuture;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Decodes a video once and stores its frames dithered for a fixed map resolution, so that {@link
+ * PrerenderedMediaPlayer} can play it any number of times without decoding or dithering again.
+ */
+public final class PrerenderBaker {
+
+  private final MediaLibraryCore core;
+  private final Input input;
+  private final Path output;
+  private final Dimension resolution;
+  private final int fps;
+  private final DitherAlgorithm algorithm;
+
+  public PrerenderBaker(
+      @NotNull final MediaLibraryCore core,
+      @NotNull final Input input,
+      @NotNull final Path output,
+      @NotNull final Dimension resolution,
+      @NotNull final FrameConfiguration fps,
+      @NotNull final DitherAlgorithm algorithm) {
+    checkNotNull(core, "MediaLibraryCore cannot be null!");
+    checkNotNull(input, "Input cannot be null!");
+    checkNotNull(output, "Output cannot be null!");
+    checkNotNull(resolution, "Resolution cannot be null!");
+    checkNotNull(algorithm, "Algorithm cannot be null!");
+    checkArgument(fps.getFps() > 0, "Frame rate must be greater than 0!");
+    this.core = core;
+    this.input = input;
+    this.output = output;
+    this.resolution = resolution;
+    this.fps = fps.getFps();
+    this.algorithm = algorithm;
+  }
+
+  /**
+   * Bakes the video. The file only appears at the output path once it is complete.
+   *
+   * @return the output path
+   * @throws IOException if the video could not be written
+   */
+  public @NotNull Path bake() throws IOException {
+    final Path folder = this.output.toAbsolutePath().getParent();
+    Files.createDirectories(folder);
+    final Path temp = Files.createTempFile(folder, "prerender", ".tmp");
+    final int width = this.resolution.getWidth();
+    final int height = this.resolution.getHeight();
+    try {
+      try (final PrerenderWriter writer =
+          new PrerenderWriter(temp, width, height, this.fps, this.fps * 2)) {
+        this.createProcess(new FrameStream(writer, width, height)).execute();
+      }
+      this.move(temp);
+    } catch (final JaffreeException e) {
+      final IOException cause = findIOException(e);
+      if (cause != null) {
+        throw cause;
+      }
+      throw e;
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+    return this.output;
+  }
+
+  /**
+   * Finds the exception thrown while writing a frame. Jaffree runs the pipe on a helper thread and
+   * reports its failure wrapped in a {@link JaffreeException}, either as the cause or suppressed.
+   */
+  private static @Nullable IOException findIOException(@NotNull final Throwable throwable) {
+    if (throwable instanceof IOException e) {
+      return e;
+    }
+    for (final Throwable suppressed : throwable.getSuppressed()) {
+      final IOException e = findIOException(suppressed);
+      if (e != null) {
+        return e;
+      }
+    }
+    final Throwable cause = throwable.getCause();
+    return cause == null || cause == throwable ? null : findIOException(cause);
+  }
+
+  public @NotNull CompletableFuture<Path> bakeAsync() {
+    return CompletableFuture.supplyAsync(
+        () -> {
+          try {
+            return this.bake();
+          } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        },
+        ExecutorProvider.ENCODER_HANDLER);
+  }
+
+  private @NotNull FFmpeg createProcess(@NotNull final OutputStream stream) {
+    final Input video = RequestUtils.getVideoURLs(this.input).get(0);
+    final BaseInput<?> source =
+        (BaseInput<?>) new FFmpegMediaPlayerInputParser(this.core).parseInput(video).getKey();
+    return new FFmpeg(this.core.getFFmpegPath().toAbsolutePath())
+        .addInput(source)
+        .addArguments(
+            "-vf", "scale=%s:%s".formatted(this.resolution.getWidth(), this.resolution.getHeight()))
+        .addOutput(
+            PipeOutput.pumpTo(stream)
+                .setFormat("rawvideo")
+                .setFrameRate(this.fps)
+                .addArguments("-pix_fmt", "bgra")
+                .disableStream(StreamType.AUDIO)
+                .disableStream(StreamType.SUBTITLE)
+                .disableStream(StreamType.DATA))
+        .setLogLevel(LogLevel.FATAL)
+        .setOutputListener(line -> this.core.getLogger().ffmpegPlayer(line));
+  }
+
+  private void move(@NotNull final Path temp) throws IOException {
+    try {
+      Files.move(
+          temp, this.output, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (final AtomicMoveNotSupportedException e) {
+      Files.move(temp, this.output, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  /** Dithers and stores the raw {@code bgra} frames written by FFmpeg. */
+  private final class FrameStream extends RawFrameStream {
+
+    private final PrerenderWriter writer;
+    private final int[] pixels;
+    private final byte[] indices;
+
+    FrameStream(@NotNull final PrerenderWriter writer, final int width, final int height) {
+      super(width * height << 2);
+      this.writer = writer;
+      this.pixels = new int[width * height];
+      this.indices = new byte[width * height];
+    }
+
+    @Override
+    protected void onFrame(@NotNull final ByteBuffer frame) throws IOException {
+      frame.asIntBuffer().get(this.pixels);
+      final BufferCarrier carrier =
+          PrerenderBaker.this.algorithm.ditherIntoMinecraft(
+              this.pixels, PrerenderBaker.this.resolution.getWidth());
+      try {
+        carrier.getBytes(this.indices);
+      } finally {
+        carrier.release();
+      }
+      this.writer.write(this.indices);
+    }
+  }
+}
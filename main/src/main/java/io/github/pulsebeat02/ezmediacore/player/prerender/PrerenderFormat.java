@@ -0,0 +1,53 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.prerender;
+
+/**
+ * Layout of a pre-rendered map video. The file starts with a fixed header, followed by one deflate
+ * stream per frame and the frame index at the end.
+ *
+ * <pre>
+ * header  magic, version, width, height, fps, frame count, keyframe interval (ints),
+ *         index offset (long)
+ * frames  deflated palette indices for keyframes, deflated XOR against the previous frame
+ *         otherwise
+ * index   offset (long) and compressed length (int) of every frame
+ * </pre>
+ *
+ * Every frame whose index is a multiple of the keyframe interval is a keyframe, so seeking only
+ * ever decodes up to one interval of frames.
+ *
+ * <p>The whole file is mapped as one buffer, which can address at most {@link #MAX_SIZE} bytes, so
+ * the writer refuses to grow a video past that size.
+ */
+final class PrerenderFormat {
+
+  static final int MAGIC = 0x455A4D56; // EZMV
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 36;
+  static final int INDEX_ENTRY_SIZE = 12;
+  static final long MAX_SIZE = Integer.MAX_VALUE;
+
+  private PrerenderFormat() {}
+}
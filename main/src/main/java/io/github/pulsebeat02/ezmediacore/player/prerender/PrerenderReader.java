@@ -0,0 +1,189 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.prerender;
+
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static io.github.pulsebeat02.ezmediacore.player.prerender.PrerenderFormat.HEADER_SIZE;
+import static io.github.pulsebeat02.ezmediacore.player.prerender.PrerenderFormat.INDEX_ENTRY_SIZE;
+import static io.github.pulsebeat02.ezmediacore.player.prerender.PrerenderFormat.MAGIC;
+import static io.github.pulsebeat02.ezmediacore.player.prerender.PrerenderFormat.MAX_SIZE;
+import static io.github.pulsebeat02.ezmediacore.player.prerender.PrerenderFormat.VERSION;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Reads a memory mapped pre-rendered video. Frames are inflated straight from the mapping into a
+ * reused frame, and reading the frames in order only applies one delta per frame.
+ */
+final class PrerenderReader implements Closeable {
+
+  private final FileChannel channel;
+  private final MappedByteBuffer buffer;
+  private final Inflater inflater;
+  private final int width;
+  private final int height;
+  private final int fps;
+  private final int frames;
+  private final int interval;
+  private final int indexOffset;
+  private final byte[] frame;
+  private final byte[] delta;
+  private int current;
+
+  PrerenderReader(@NotNull final Path path) throws IOException {
+    this.channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      final long size = this.channel.size();
+      if (size < HEADER_SIZE || size > MAX_SIZE) {
+        throw new IOException("Invalid pre-rendered video size %s!".formatted(size));
+      }
+      this.buffer = this.channel.map(MapMode.READ_ONLY, 0, size);
+      if (this.buffer.getInt(0) != MAGIC || this.buffer.getInt(4) != VERSION) {
+        throw new IOException("%s is not a pre-rendered video!".formatted(path));
+      }
+      this.width = this.buffer.getInt(8);
+      this.height = this.buffer.getInt(12);
+      this.fps = this.buffer.getInt(16);
+      this.frames = this.buffer.getInt(20);
+      this.interval = this.buffer.getInt(24);
+      final long indexOffset = this.buffer.getLong(28);
+      if (this.width <= 0
+          || this.height <= 0
+          || (long) this.width * this.height > Integer.MAX_VALUE
+          || this.fps <= 0
+          || this.frames < 0
+          || this.interval <= 0
+          || indexOffset < HEADER_SIZE) {
+        throw new IOException("Corrupted header in pre-rendered video %s!".formatted(path));
+      }
+      if (indexOffset + (long) this.frames * INDEX_ENTRY_SIZE > size) {
+        throw new IOException("Truncated pre-rendered video %s!".formatted(path));
+      }
+      this.indexOffset = (int) indexOffset;
+    } catch (final IOException e) {
+      this.channel.close();
+      throw e;
+    }
+    this.inflater = new Inflater();
+    this.frame = new byte[this.width * this.height];
+    this.delta = new byte[this.width * this.height];
+    this.current = -1;
+  }
+
+  /**
+   * Decodes a frame. Moving forward within the same keyframe interval only decodes the frames in
+   * between, anything else starts at the closest keyframe.
+   *
+   * @param index the index of the frame
+   * @return the palette indices of the frame, only valid until the next call
+   * @throws IOException if the frame is corrupted
+   */
+  byte @NotNull [] read(final int index) throws IOException {
+    checkElementIndex(index, this.frames);
+    if (index == this.current) {
+      return this.frame;
+    }
+    final int keyframe = index - index % this.interval;
+    final int first =
+        this.current >= keyframe && this.current < index ? this.current + 1 : keyframe;
+    try {
+      for (int i = first; i <= index; i++) {
+        this.decode(i);
+        this.current = i;
+      }
+    } catch (final IOException e) {
+      this.current = -1;
+      throw e;
+    }
+    return this.frame;
+  }
+
+  private void decode(final int index) throws IOException {
+    if (index % this.interval == 0) {
+      this.inflate(index, this.frame);
+      return;
+    }
+    this.inflate(index, this.delta);
+    for (int i = 0; i < this.frame.length; i++) {
+      this.frame[i] ^= this.delta[i];
+    }
+  }
+
+  private void inflate(final int index, final byte @NotNull [] output) throws IOException {
+    final int entry = this.indexOffset + index * INDEX_ENTRY_SIZE;
+    final long offset = this.buffer.getLong(entry);
+    final int length = this.buffer.getInt(entry + 8);
+    if (offset < HEADER_SIZE || length < 0 || offset + length > this.indexOffset) {
+      throw new IOException("Frame %s of the pre-rendered video is corrupted!".formatted(index));
+    }
+    this.inflater.reset();
+    this.inflater.setInput(this.buffer.slice((int) offset, length));
+    try {
+      int written = 0;
+      while (written < output.length && !this.inflater.finished()) {
+        final int count = this.inflater.inflate(output, written, output.length - written);
+        if (count == 0 && this.inflater.needsInput()) {
+          break;
+        }
+        written += count;
+      }
+      if (written != output.length) {
+        throw new IOException("Frame %s of the pre-rendered video is truncated!".formatted(index));
+      }
+    } catch (final DataFormatException e) {
+      throw new IOException(e);
+    }
+  }
+
+  int getWidth() {
+    return this.width;
+  }
+
+  int getHeight() {
+    return this.height;
+  }
+
+  int getFps() {
+    return this.fps;
+  }
+
+  int getFrameCount() {
+    return this.frames;
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.inflater.end();
+    this.channel.close();
+  }
+}
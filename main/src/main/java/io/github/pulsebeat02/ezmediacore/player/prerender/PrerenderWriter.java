@@ -0,0 +1,168 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.prerender;
+
+import static io.github.pulsebeat02.ezmediacore.player.prerender.PrerenderFormat.HEADER_SIZE;
+import static io.github.pulsebeat02.ezmediacore.player.prerender.PrerenderFormat.INDEX_ENTRY_SIZE;
+import static io.github.pulsebeat02.ezmediacore.player.prerender.PrerenderFormat.MAGIC;
+import static io.github.pulsebeat02.ezmediacore.player.prerender.PrerenderFormat.MAX_SIZE;
+import static io.github.pulsebeat02.ezmediacore.player.prerender.PrerenderFormat.VERSION;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+import org.jetbrains.annotations.NotNull;
+
+/** Appends dithered frames to a pre-rendered video. See {@link PrerenderFormat}. */
+final class PrerenderWriter implements Closeable {
+
+  private final FileChannel channel;
+  private final Deflater deflater;
+  private final LongArrayList offsets;
+  private final IntArrayList lengths;
+  private final int width;
+  private final int height;
+  private final int fps;
+  private final int interval;
+  private final byte[] previous;
+  private final byte[] delta;
+  private byte[] compressed;
+  private long position;
+
+  PrerenderWriter(
+      @NotNull final Path path,
+      final int width,
+      final int height,
+      final int fps,
+      final int interval)
+      throws IOException {
+    this.channel =
+        FileChannel.open(
+            path,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE);
+    this.deflater = new Deflater(Deflater.BEST_SPEED);
+    this.offsets = new LongArrayList();
+    this.lengths = new IntArrayList();
+    this.width = width;
+    this.height = height;
+    this.fps = fps;
+    this.interval = interval;
+    this.previous = new byte[width * height];
+    this.delta = new byte[width * height];
+    this.compressed = new byte[width * height];
+    this.position = HEADER_SIZE;
+  }
+
+  /**
+   * Appends a frame.
+   *
+   * @param frame the palette indices of the frame
+   * @throws IOException if the frame could not be written, or if the video would grow past {@link
+   *     PrerenderFormat#MAX_SIZE} bytes
+   */
+  void write(final byte @NotNull [] frame) throws IOException {
+    final int frames = this.offsets.size();
+    byte[] data = frame;
+    if (frames % this.interval != 0) {
+      for (int i = 0; i < frame.length; i++) {
+        this.delta[i] = (byte) (frame[i] ^ this.previous[i]);
+      }
+      data = this.delta;
+    }
+    System.arraycopy(frame, 0, this.previous, 0, frame.length);
+    final int length = this.compress(data);
+    if (this.position + length + (frames + 1L) * INDEX_ENTRY_SIZE > MAX_SIZE) {
+      throw new IOException(
+          "Pre-rendered video would exceed %s bytes after %s frames!".formatted(MAX_SIZE, frames));
+    }
+    this.writeFully(ByteBuffer.wrap(this.compressed, 0, length));
+    this.offsets.add(this.position - length);
+    this.lengths.add(length);
+  }
+
+  private int compress(final byte @NotNull [] data) {
+    this.deflater.reset();
+    this.deflater.setInput(data);
+    this.deflater.finish();
+    int length = 0;
+    while (!this.deflater.finished()) {
+      if (length == this.compressed.length) {
+        this.compressed = Arrays.copyOf(this.compressed, length << 1);
+      }
+      length += this.deflater.deflate(this.compressed, length, this.compressed.length - length);
+    }
+    return length;
+  }
+
+  private void writeFully(@NotNull final ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      this.position += this.channel.write(buffer, this.position);
+    }
+  }
+
+  int getFrameCount() {
+    return this.offsets.size();
+  }
+
+  /** Writes the index and the header, which makes the file readable. */
+  @Override
+  public void close() throws IOException {
+    try {
+      final int frames = this.offsets.size();
+      final long indexOffset = this.position;
+      final ByteBuffer index = ByteBuffer.allocate(frames * INDEX_ENTRY_SIZE);
+      for (int i = 0; i < frames; i++) {
+        index.putLong(this.offsets.getLong(i)).putInt(this.lengths.getInt(i));
+      }
+      this.writeFully(index.flip());
+      final ByteBuffer header =
+          ByteBuffer.allocate(HEADER_SIZE)
+              .putInt(MAGIC)
+              .putInt(VERSION)
+              .putInt(this.width)
+              .putInt(this.height)
+              .putInt(this.fps)
+              .putInt(frames)
+              .putInt(this.interval)
+              .putLong(indexOffset)
+              .flip();
+      while (header.hasRemaining()) {
+        this.channel.write(header, header.position());
+      }
+      this.channel.force(false);
+    } finally {
+      this.deflater.end();
+      this.channel.close();
+    }
+  }
+}
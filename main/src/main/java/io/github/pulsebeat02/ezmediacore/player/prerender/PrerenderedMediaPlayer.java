@@ -0,0 +1,291 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.prerender;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import io.github.pulsebeat02.ezmediacore.callback.Callback;
+import io.github.pulsebeat02.ezmediacore.callback.DelayConfiguration;
+import io.github.pulsebeat02.ezmediacore.callback.Identifier;
+import io.github.pulsebeat02.ezmediacore.callback.PreparedCallback;
+import io.github.pulsebeat02.ezmediacore.callback.Viewers;
+import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
+import io.github.pulsebeat02.ezmediacore.dither.MapPalette;
+import io.github.pulsebeat02.ezmediacore.executor.ExecutorProvider;
+import io.github.pulsebeat02.ezmediacore.locale.Locale;
+import io.github.pulsebeat02.ezmediacore.player.FrameConfiguration;
+import io.github.pulsebeat02.ezmediacore.player.MediaPlayer;
+import io.github.pulsebeat02.ezmediacore.player.SoundKey;
+import io.github.pulsebeat02.ezmediacore.player.VideoBuilder;
+import io.github.pulsebeat02.ezmediacore.player.input.Input;
+import io.github.pulsebeat02.ezmediacore.player.input.PrerenderedMediaPlayerInputParser;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Plays videos baked by {@link PrerenderBaker}. Frames are already dithered, so playback only
+ * inflates them from the memory mapped file and hands them to the callback.
+ */
+public final class PrerenderedMediaPlayer extends MediaPlayer {
+
+  private static final int[] COLORS;
+
+  static {
+    COLORS = new int[256];
+    for (int i = 0; i < Math.min(COLORS.length, MapPalette.NMS_PALETTE.length); i++) {
+      COLORS[i] = MapPalette.NMS_PALETTE[i].getRGB();
+    }
+  }
+
+  private final Object lock;
+  private PrerenderReader reader;
+  private int[] pixels;
+  private volatile Future<?> task;
+  private volatile long start;
+  private volatile int position;
+
+  PrerenderedMediaPlayer(
+      @NotNull final Callback callback,
+      @NotNull final Viewers viewers,
+      @NotNull final Dimension pixelDimension,
+      @NotNull final FrameConfiguration fps,
+      @Nullable final SoundKey key) {
+    super(
+        callback,
+        viewers,
+        pixelDimension,
+        fps,
+        key,
+        new PrerenderedMediaPlayerInputParser(callback.getCore()));
+    this.lock = new Object();
+  }
+
+  @Override
+  public void start(@NotNull final Input mrl, @NotNull final Object... arguments) {
+    super.start(mrl, arguments);
+    this.stopPlayback();
+    this.initializePlayer(mrl, DelayConfiguration.DELAY_0_MS, arguments);
+    if (this.hasReader()) {
+      this.playAudio();
+      this.startPlayback();
+    }
+  }
+
+  @Override
+  public void pause() {
+    super.pause();
+    this.stopPlayback();
+    this.stopAudio();
+  }
+
+  @Override
+  public void resume(@NotNull final Input mrl, @NotNull final Object... arguments) {
+    super.resume(mrl, arguments);
+    this.stopPlayback();
+    if (!this.hasReader()) {
+      this.initializePlayer(mrl, DelayConfiguration.DELAY_0_MS, arguments);
+    }
+    if (this.hasReader()) {
+      this.playAudio();
+      this.startPlayback();
+    }
+  }
+
+  @Override
+  public void release() {
+    super.release();
+    this.stopPlayback();
+    synchronized (this.lock) {
+      this.closeReader();
+    }
+  }
+
+  @Override
+  public void initializePlayer(
+      @NotNull final Input mrl,
+      @NotNull final DelayConfiguration delay,
+      @NotNull final Object... arguments) {
+    this.setDirectVideoMrl(mrl);
+    this.setDirectAudioMrl(mrl);
+    final String path = (String) this.getInputParser().parseInput(mrl).getKey();
+    synchronized (this.lock) {
+      this.closeReader();
+      try {
+        this.reader = new PrerenderReader(Path.of(path));
+      } catch (final IOException e) {
+        this.getCore().getLogger().error(Locale.ERR_PRERENDER_READ.build(e.getMessage()));
+        return;
+      }
+      final Dimension dimension = this.getDimensions();
+      checkArgument(
+          this.reader.getWidth() == dimension.getWidth()
+              && this.reader.getHeight() == dimension.getHeight(),
+          "Pre-rendered video is %sx%s, but the player is %sx%s!",
+          this.reader.getWidth(),
+          this.reader.getHeight(),
+          dimension.getWidth(),
+          dimension.getHeight());
+      this.pixels = new int[dimension.getWidth() * dimension.getHeight()];
+      this.position = (int) (delay.getDelay() * this.reader.getFps() / 1000);
+    }
+  }
+
+  private boolean hasReader() {
+    synchronized (this.lock) {
+      return this.reader != null;
+    }
+  }
+
+  private void closeReader() {
+    if (this.reader != null) {
+      try {
+        this.reader.close();
+      } catch (final IOException e) {
+        this.getCore().getLogger().error(Locale.ERR_PRERENDER_READ.build(e.getMessage()));
+      }
+      this.reader = null;
+    }
+  }
+
+  private void startPlayback() {
+    this.start = System.currentTimeMillis() - this.getTimestamp(this.position);
+    this.task = ExecutorProvider.ENCODER_HANDLER.submit(this::play);
+  }
+
+  private void stopPlayback() {
+    final Future<?> task = this.task;
+    if (task != null) {
+      task.cancel(true);
+      this.task = null;
+    }
+  }
+
+  private void play() {
+    synchronized (this.lock) {
+      final PrerenderReader reader = this.reader;
+      if (reader == null) {
+        return;
+      }
+      final int frames = reader.getFrameCount();
+      final int fps = reader.getFps();
+      try {
+        while (!Thread.currentThread().isInterrupted() && this.position < frames) {
+          final long elapsed = System.currentTimeMillis() - this.start;
+          final int target = (int) Math.min(elapsed * fps / 1000, frames - 1);
+          if (target >= this.position) {
+            this.display(reader.read(target));
+            this.position = target + 1;
+          }
+          final long due = this.start + this.getTimestamp(this.position);
+          LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(due - System.currentTimeMillis()));
+        }
+      } catch (final IOException e) {
+        this.getCore().getLogger().error(Locale.ERR_PRERENDER_READ.build(e.getMessage()));
+        this.stopAudio();
+      }
+    }
+  }
+
+  private long getTimestamp(final int frame) {
+    final PrerenderReader reader = this.reader;
+    final int fps = reader == null ? this.getFrameConfiguration().getFps() : reader.getFps();
+    return frame * 1000L / fps;
+  }
+
+  private void display(final byte @NotNull [] frame) {
+    final Callback callback = this.getCallback();
+    if (callback instanceof PreparedCallback prepared
+        && prepared.getPreparedLength(frame.length) == frame.length) {
+      prepared.present(frame);
+      return;
+    }
+    for (int i = 0; i < frame.length; i++) {
+      this.pixels[i] = COLORS[frame[i] & 0xFF];
+    }
+    callback.process(this.pixels);
+  }
+
+  @Override
+  public long getElapsedMilliseconds() {
+    return System.currentTimeMillis() - this.start;
+  }
+
+  @Override
+  public @NotNull Identifier<String> getPlayerType() {
+    return MediaPlayer.PRERENDERED;
+  }
+
+  @Override
+  public boolean isBuffered() {
+    return false;
+  }
+
+  public static final class Builder extends VideoBuilder {
+
+    public Builder() {}
+
+    @Contract("_ -> this")
+    @Override
+    public Builder callback(@NotNull final Callback callback) {
+      super.callback(callback);
+      return this;
+    }
+
+    @Contract("_ -> this")
+    @Override
+    public Builder frameRate(@NotNull final FrameConfiguration rate) {
+      super.frameRate(rate);
+      return this;
+    }
+
+    @Contract("_ -> this")
+    @Override
+    public Builder dims(@NotNull final Dimension dims) {
+      super.dims(dims);
+      return this;
+    }
+
+    @Contract("_ -> this")
+    @Override
+    public Builder soundKey(@NotNull final SoundKey key) {
+      super.soundKey(key);
+      return this;
+    }
+
+    @Contract(" -> new")
+    @Override
+    public @NotNull MediaPlayer build() {
+      super.init();
+      final Callback callback = this.getCallback();
+      return new PrerenderedMediaPlayer(
+          callback, callback.getWatchers(), this.getDims(), this.getRate(), this.getKey());
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.callback;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.github.pulsebeat02.ezmediacore.MediaLibraryCore;
+import io.github.pulsebeat02.ezmediacore.callback.MediaSource.Output;
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
+import io.github.pulsebeat02.ezmediacore.dimension.Dimension;
+import io.github.pulsebeat02.ezmediacore.dither.DitherAlgorithm;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.FilterLiteDither;
+import io.github.pulsebeat02.ezmediacore.dither.buffer.ByteBufCarrier;
+import io.github.pulsebeat02.ezmediacore.nms.PacketHandler;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that map callbacks configured alike share one dithered frame when they are fed by the same
+ * {@link MediaSource}, even though each of them holds its own algorithm instance.
+ */
+public final class SharedPreparation {
+
+  private static final Dimension MAPS = Dimension.ofDimension(1, 1);
+  private static final Dimension PIXELS = Dimension.ofDimension(128, 128);
+
+  @Test
+  public void equalChildrenPrepareOnce() {
+    final MediaLibraryCore core = this.createCore();
+    final AtomicInteger dithered = new AtomicInteger();
+    final MediaSource source =
+        new MediaSource(
+            core,
+            Viewers.ofUUIDs(),
+            PIXELS,
+            DelayConfiguration.DELAY_0_MS,
+            List.of(
+                new Output(this.createMap(core, new CountingDither(dithered), 0), PIXELS),
+                new Output(this.createMap(core, new CountingDither(dithered), 1), PIXELS)));
+    source.process(new int[PIXELS.getWidth() * PIXELS.getHeight()]);
+    assertEquals(1, dithered.get());
+  }
+
+  @Test
+  public void defaultAlgorithmsShareKey() {
+    final MediaLibraryCore core = this.createCore();
+    assertEquals(
+        this.createMap(core, new FilterLiteDither(), 0).getPreparationKey(),
+        this.createMap(core, new FilterLiteDither(), 1).getPreparationKey());
+  }
+
+  private @NotNull MapCallback createMap(
+      @NotNull final MediaLibraryCore core,
+      @NotNull final DitherAlgorithm algorithm,
+      final int map) {
+    return new MapCallback(
+        core,
+        Viewers.ofUUIDs(),
+        MAPS,
+        algorithm,
+        Identifier.ofIdentifier(map),
+        DelayConfiguration.DELAY_0_MS,
+        PIXELS.getWidth(),
+        null);
+  }
+
+  private @NotNull MediaLibraryCore createCore() {
+    final PacketHandler handler = this.createProxy(PacketHandler.class, null);
+    return this.createProxy(MediaLibraryCore.class, handler);
+  }
+
+  private <T> @NotNull T createProxy(@NotNull final Class<T> type, final Object handler) {
+    return type.cast(
+        Proxy.newProxyInstance(
+            type.getClassLoader(),
+            new Class<?>[] {type},
+            (proxy, method, args) ->
+                method.getReturnType() == PacketHandler.class ? handler : null));
+  }
+
+  private static final class CountingDither implements DitherAlgorithm {
+
+    private final AtomicInteger dithered;
+
+    CountingDither(@NotNull final AtomicInteger dithered) {
+      this.dithered = dithered;
+    }
+
+    @Override
+    public @NotNull BufferCarrier ditherIntoMinecraft(
+        final int @NotNull [] buffer, final int width) {
+      this.dithered.incrementAndGet();
+      return ByteBufCarrier.ofByteArray(new byte[buffer.length]);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (!(obj instanceof CountingDither)) {
+        return false;
+      }
+      return ((CountingDither) obj).dithered == this.dithered;
+    }
+
+    @Override
+    public int hashCode() {
+      return System.identityHashCode(this.dithered);
+    }
+  }
+}
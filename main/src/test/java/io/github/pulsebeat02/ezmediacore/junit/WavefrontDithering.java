@@ -0,0 +1,86 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.junit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.DiffusionKernel;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.WavefrontDither;
+import io.github.pulsebeat02.ezmediacore.dither.load.DitherLookupUtil;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+public final class WavefrontDithering {
+
+  private static final int WIDTH = 200;
+  private static final int HEIGHT = 96;
+  private static final int[] THREADS = {2, 3, 4, 8};
+  private static final int[] BUFFER;
+
+  static {
+    BUFFER = new int[WIDTH * HEIGHT];
+    final SplittableRandom random = new SplittableRandom(0);
+    for (int y = 0; y < HEIGHT; y++) {
+      for (int x = 0; x < WIDTH; x++) {
+        final int red = x * 255 / WIDTH;
+        final int green = y * 255 / HEIGHT;
+        final int blue = random.nextInt(256);
+        BUFFER[y * WIDTH + x] = 0xFF000000 | red << 16 | green << 8 | blue;
+      }
+    }
+    DitherLookupUtil.init();
+  }
+
+  @Test
+  public void parallelMatchesSerial() {
+    for (final DiffusionKernel kernel : DiffusionKernel.values()) {
+      final byte[] serial = this.run(new WavefrontDither(kernel, ForkJoinPool.commonPool(), 1));
+      for (final int threads : THREADS) {
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+          assertArrayEquals(
+              serial,
+              this.run(new WavefrontDither(kernel, pool, threads)),
+              "%s with %d threads".formatted(kernel, threads));
+        } finally {
+          pool.shutdown();
+        }
+      }
+    }
+  }
+
+  private byte @NotNull [] run(@NotNull final WavefrontDither algorithm) {
+    final BufferCarrier carrier = algorithm.ditherIntoMinecraft(BUFFER, WIDTH);
+    try {
+      final byte[] data = new byte[carrier.getCapacity()];
+      carrier.getBytes(data);
+      return data;
+    } finally {
+      carrier.release();
+    }
+  }
+}
@@ -0,0 +1,94 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.buffered;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pushes frames through a small ring from one thread to another. The ring is much smaller than the
+ * amount of frames, so both sides keep parking and unparking each other. Every frame is filled
+ * with its own sequence number, which exposes lost, repeated, reordered and torn frames.
+ */
+public final class FrameRingOrdering {
+
+  private static final int FRAMES = 2_000_000;
+  private static final int CAPACITY = 4;
+  private static final int LENGTH = 16;
+
+  @Test
+  public void framesArriveInOrder() throws InterruptedException {
+    final FrameRing<int[]> ring = FrameRing.ofPixels(CAPACITY);
+    final AtomicReference<Throwable> failure = new AtomicReference<>();
+    final Thread producer = new Thread(() -> this.produce(ring, failure), "FrameRing Producer");
+    producer.start();
+    long received = 0;
+    try {
+      while (received < FRAMES) {
+        final int[] frame = ring.peek();
+        if (frame == null) {
+          continue;
+        }
+        assertEquals(received, ring.peekTimestamp(), "timestamp");
+        for (final int value : frame) {
+          if (value != received) {
+            fail("frame %d contains %d".formatted(received, value));
+          }
+        }
+        ring.release();
+        received++;
+      }
+    } finally {
+      producer.interrupt();
+      producer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+    assertFalse(producer.isAlive(), "producer still running");
+    assertNull(failure.get());
+    assertEquals(0, ring.size());
+  }
+
+  private void produce(
+      @NotNull final FrameRing<int[]> ring, @NotNull final AtomicReference<Throwable> failure) {
+    try {
+      for (int i = 0; i < FRAMES; i++) {
+        final int[] slot = ring.claim(LENGTH);
+        for (int j = 0; j < LENGTH; j++) {
+          slot[j] = i;
+        }
+        ring.publish(i);
+      }
+    } catch (final InterruptedException ignored) {
+      // the consumer gave up and stops the test
+    } catch (final Throwable e) {
+      failure.set(e);
+    }
+  }
+}
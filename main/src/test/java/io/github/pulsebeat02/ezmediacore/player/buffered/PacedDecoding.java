@@ -0,0 +1,89 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.buffered;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.github.pulsebeat02.ezmediacore.MediaLibraryCore;
+import io.github.pulsebeat02.ezmediacore.callback.PreparedCallback;
+import io.github.pulsebeat02.ezmediacore.callback.quality.QualityController;
+import io.github.pulsebeat02.ezmediacore.dither.algorithm.error.FilterLiteDither;
+import io.github.pulsebeat02.ezmediacore.player.FrameConfiguration;
+import java.lang.reflect.Proxy;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that a decoder which spends most of its time waiting for a paced stream, like FFmpeg
+ * reading with {@code -re}, does not count the waiting as work and keeps the screen at full quality.
+ */
+public final class PacedDecoding {
+
+  private static final int PIXELS = 128 * 128;
+  private static final int FRAMES_PER_WINDOW = 10;
+  private static final long FRAME_MILLIS = 20;
+  private static final int WINDOWS = 4;
+  private static final int WINDOW_TICKS = 20;
+
+  @Test
+  public void idleDecoderKeepsQuality() throws InterruptedException {
+    final QualityController quality =
+        QualityController.ofController(
+            this.createProxy(MediaLibraryCore.class),
+            new FilterLiteDither(),
+            FrameConfiguration.FPS_30);
+    final PreparedFrameWriter writer =
+        new PreparedFrameWriter(
+            FrameRing.ofBytes(FRAMES_PER_WINDOW * WINDOWS),
+            this.createProxy(PreparedCallback.class),
+            quality);
+    long timestamp = 0;
+    for (int window = 0; window < WINDOWS; window++) {
+      for (int frame = 0; frame < FRAMES_PER_WINDOW; frame++) {
+        Thread.sleep(FRAME_MILLIS);
+        writer.claim(PIXELS);
+        writer.publish(timestamp);
+        timestamp += FRAME_MILLIS;
+      }
+      for (int tick = 0; tick < WINDOW_TICKS; tick++) {
+        quality.run();
+      }
+    }
+    assertEquals(0, quality.getLevelIndex());
+  }
+
+  private <T> @NotNull T createProxy(@NotNull final Class<T> type) {
+    return type.cast(
+        Proxy.newProxyInstance(
+            type.getClassLoader(),
+            new Class<?>[] {type},
+            (proxy, method, args) -> {
+              final Class<?> returned = method.getReturnType();
+              if (returned == int.class) {
+                return args[0];
+              }
+              return returned.isInterface() ? this.createProxy(returned) : null;
+            }));
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.player.prerender;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Writes a short pre-rendered video and reads it back. The frames change only partly from one to
+ * the next, like a real video, so most of them are stored as deltas between the keyframes.
+ */
+public final class PrerenderRoundTrip {
+
+  private static final int WIDTH = 48;
+  private static final int HEIGHT = 32;
+  private static final int FPS = 20;
+  private static final int INTERVAL = 8;
+  private static final byte[][] FRAMES;
+
+  static {
+    FRAMES = new byte[30][WIDTH * HEIGHT];
+    final SplittableRandom random = new SplittableRandom(0);
+    for (int i = 0; i < FRAMES.length; i++) {
+      final byte[] frame = FRAMES[i];
+      if (i > 0) {
+        System.arraycopy(FRAMES[i - 1], 0, frame, 0, frame.length);
+      }
+      for (int j = 0; j < frame.length / 8; j++) {
+        frame[random.nextInt(frame.length)] = (byte) random.nextInt(4, 248);
+      }
+    }
+  }
+
+  @Test
+  public void framesReadInOrder() throws IOException {
+    final Path path = this.writeVideo();
+    try (final PrerenderReader reader = new PrerenderReader(path)) {
+      assertEquals(WIDTH, reader.getWidth());
+      assertEquals(HEIGHT, reader.getHeight());
+      assertEquals(FPS, reader.getFps());
+      assertEquals(FRAMES.length, reader.getFrameCount());
+      for (int i = 0; i < FRAMES.length; i++) {
+        assertArrayEquals(FRAMES[i], reader.read(i), "frame %d".formatted(i));
+      }
+    } finally {
+      Files.deleteIfExists(path);
+    }
+  }
+
+  @Test
+  public void framesReadAfterSeeking() throws IOException {
+    final Path path = this.writeVideo();
+    try (final PrerenderReader reader = new PrerenderReader(path)) {
+      for (final int index : new int[] {21, 5, 6, 19, 3, 29, 29, 0, 16, 15}) {
+        assertArrayEquals(FRAMES[index], reader.read(index), "frame %d".formatted(index));
+      }
+    } finally {
+      Files.deleteIfExists(path);
+    }
+  }
+
+  @Test
+  public void corruptedHeaderRejected() throws IOException {
+    final Path path = this.writeVideo();
+    try {
+      try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+        channel.write(ByteBuffer.allocate(4), 24); // keyframe interval of 0
+      }
+      assertThrows(IOException.class, () -> new PrerenderReader(path));
+    } finally {
+      Files.deleteIfExists(path);
+    }
+  }
+
+  private @NotNull Path writeVideo() throws IOException {
+    final Path path = Files.createTempFile("prerender", ".tmp");
+    try (final PrerenderWriter writer = new PrerenderWriter(path, WIDTH, HEIGHT, FPS, INTERVAL)) {
+      for (final byte[] frame : FRAMES) {
+        writer.write(frame);
+      }
+      assertEquals(FRAMES.length, writer.getFrameCount());
+    }
+    return path;
+  }
+}
@@ -0,0 +1,158 @@
+/*
+ * MIT License
+ *
+ * Copyright (c) 2021 Brandon Li
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.github.pulsebeat02.ezmediacore.dither.algorithm.vector;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Vector API implementations of the dithering algorithms without a serial dependency between
+ * pixels. A whole vector of pixels is unpacked, offset, clamped and turned into lookup keys at
+ * once; only the palette lookup itself stays scalar. Results are identical to the scalar paths.
+ *
+ * <p>Only load this class after {@link VectorSupport#isSupported()} returned true. It lives in the
+ * {@code vector} source set, which is the only one compiled with the incubating module, and so it
+ * is handed the color lookup table instead of reading it from the main sources.
+ */
+public final class VectorDither {
+
+  private static final VectorSpecies<Integer> INT_SPECIES;
+
+  static {
+    INT_SPECIES = IntVector.SPECIES_PREFERRED;
+  }
+
+  private VectorDither() {}
+
+  public static int getLanes() {
+    return INT_SPECIES.length();
+  }
+
+  /**
+   * Ordered dithering of a frame into palette indices.
+   *
+   * @param buffer the rgb frame
+   * @param width the frame width
+   * @param thresholds one row of integer thresholds per matrix row, tiled to {@code width}
+   * @param colors the color lookup table, indexed by the 7 bit red, green and blue channels
+   * @param output the destination array
+   * @param offset the offset of the frame in the destination array
+   */
+  public static void ordered(
+      final int @NotNull [] buffer,
+      final int width,
+      final int @NotNull [] @NotNull [] thresholds,
+      final byte @NotNull [] colors,
+      final byte @NotNull [] output,
+      final int offset) {
+    final int height = buffer.length / width;
+    final int ydim = thresholds.length;
+    final int bound = INT_SPECIES.loopBound(width);
+    final int[] keys = new int[INT_SPECIES.length()];
+    for (int y = 0; y < height; y++) {
+      final int[] row = thresholds[y % ydim];
+      final int yIndex = y * width;
+      int x = 0;
+      for (; x < bound; x += keys.length) {
+        final IntVector rgb = IntVector.fromArray(INT_SPECIES, buffer, yIndex + x);
+        final IntVector threshold = IntVector.fromArray(INT_SPECIES, row, x);
+        final IntVector red = offsetChannel(rgb, 16, threshold);
+        final IntVector green = offsetChannel(rgb, 8, threshold);
+        final IntVector blue = offsetChannel(rgb, 0, threshold);
+        createKeys(red, green, blue).intoArray(keys, 0);
+        lookup(keys, colors, output, offset + yIndex + x);
+      }
+      for (; x < width; x++) {
+        final int color = buffer[yIndex + x];
+        final int threshold = row[x];
+        int r = (color >> 16 & 0xFF) + threshold;
+        int g = (color >> 8 & 0xFF) + threshold;
+        int b = (color & 0xFF) + threshold;
+        r = r > 255 ? 255 : r < 0 ? 0 : r;
+        g = g > 255 ? 255 : g < 0 ? 0 : g;
+        b = b > 255 ? 255 : b < 0 ? 0 : b;
+        output[offset + yIndex + x] = colors[r >> 1 << 14 | g >> 1 << 7 | b >> 1];
+      }
+    }
+  }
+
+  /**
+   * Maps every pixel of a frame to its closest palette index.
+   *
+   * @param buffer the rgb frame
+   * @param colors the color lookup table, indexed by the 7 bit red, green and blue channels
+   * @param output the destination array
+   * @param offset the offset of the frame in the destination array
+   */
+  public static void simple(
+      final int @NotNull [] buffer,
+      final byte @NotNull [] colors,
+      final byte @NotNull [] output,
+      final int offset) {
+    final int length = buffer.length;
+    final int bound = INT_SPECIES.loopBound(length);
+    final int[] keys = new int[INT_SPECIES.length()];
+    int i = 0;
+    for (; i < bound; i += keys.length) {
+      final IntVector rgb = IntVector.fromArray(INT_SPECIES, buffer, i);
+      final IntVector red = rgb.lanewise(VectorOperators.LSHR, 16).and(0xFF);
+      final IntVector green = rgb.lanewise(VectorOperators.LSHR, 8).and(0xFF);
+      final IntVector blue = rgb.and(0xFF);
+      createKeys(red, green, blue).intoArray(keys, 0);
+      lookup(keys, colors, output, offset + i);
+    }
+    for (; i < length; i++) {
+      final int rgb = buffer[i];
+      final int red = rgb >> 16 & 0xFF;
+      final int green = rgb >> 8 & 0xFF;
+      final int blue = rgb & 0xFF;
+      output[offset + i] = colors[red >> 1 << 14 | green >> 1 << 7 | blue >> 1];
+    }
+  }
+
+  private static @NotNull IntVector offsetChannel(
+      @NotNull final IntVector rgb, final int shift, @NotNull final IntVector threshold) {
+    return rgb.lanewise(VectorOperators.LSHR, shift).and(0xFF).add(threshold).max(0).min(255);
+  }
+
+  private static @NotNull IntVector createKeys(
+      @NotNull final IntVector red, @NotNull final IntVector green, @NotNull final IntVector blue) {
+    return red.lanewise(VectorOperators.LSHR, 1)
+        .lanewise(VectorOperators.LSHL, 14)
+        .or(green.lanewise(VectorOperators.LSHR, 1).lanewise(VectorOperators.LSHL, 7))
+        .or(blue.lanewise(VectorOperators.LSHR, 1));
+  }
+
+  private static void lookup(
+      final int @NotNull [] keys,
+      final byte @NotNull [] colors,
+      final byte @NotNull [] output,
+      final int index) {
+    for (int lane = 0; lane < keys.length; lane++) {
+      output[index + lane] = colors[keys[lane]];
+    }
+  }
+}
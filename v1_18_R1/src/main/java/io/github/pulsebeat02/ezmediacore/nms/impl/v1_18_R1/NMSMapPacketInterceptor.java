@@ -3,18 +3,26 @@ package io.github.pulsebeat02.ezmediacore.nms.impl.v1_18_R1;
 import static io.github.pulsebeat02.ezmediacore.utility.unsafe.UnsafeUtils.setFinalField;
 
 import io.github.pulsebeat02.ezmediacore.callback.buffer.BufferCarrier;
+import io.github.pulsebeat02.ezmediacore.nms.MapTileCache;
+import io.github.pulsebeat02.ezmediacore.nms.MapTileCache.Region;
 import io.github.pulsebeat02.ezmediacore.nms.PacketHandler;
+import io.github.pulsebeat02.ezmediacore.nms.ViewerPacing;
+import io.github.pulsebeat02.ezmediacore.utility.graphics.MapUtils;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundBuffer;
 import io.netty.channel.ChannelPipeline;
 import io.netty.channel.ChannelPromise;
 import java.lang.reflect.Field;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
@@ -22,13 +30,18 @@ import java.util.TreeSet;
 import java.util.UUID;
 import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.Deflater;
 import net.minecraft.SystemUtils;
+import net.minecraft.network.EnumProtocol;
+import net.minecraft.network.EnumProtocolDirection;
+import net.minecraft.network.PacketCompressor;
 import net.minecraft.network.PacketDataSerializer;
 import net.minecraft.network.chat.ChatBaseComponent;
 import net.minecraft.network.chat.ChatComponentText;
 import net.minecraft.network.chat.ChatHexColor;
 import net.minecraft.network.chat.ChatMessageType;
 import net.minecraft.network.chat.IChatBaseComponent;
+import net.minecraft.network.protocol.Packet;
 import net.minecraft.network.protocol.game.PacketPlayOutChat;
 import net.minecraft.network.protocol.game.PacketPlayOutCustomPayload;
 import net.minecraft.network.protocol.game.PacketPlayOutEntityMetadata;
@@ -49,33 +62,45 @@ import org.jetbrains.annotations.NotNull;
 
 public final class NMSMapPacketInterceptor implements PacketHandler {
 
-  private static final int PACKET_THRESHOLD_MS;
   private static final Set<Object> PACKET_DIFFERENTIATION;
   private static final Field METADATA_ITEMS;
+  private static final String ENCODER_HANDLER;
+  private static final String COMPRESSOR_HANDLER;
+  private static final ThreadLocal<Deflater> DEFLATER;
+  private static final ThreadLocal<byte[]> TILE_BUFFER;
+  private static final int[] NO_MAPS;
+  private static final Field COMPRESSION_THRESHOLD;
 
   static {
-    PACKET_THRESHOLD_MS = 0;
     PACKET_DIFFERENTIATION = Collections.newSetFromMap(new WeakHashMap<>());
+    ENCODER_HANDLER = "encoder";
+    COMPRESSOR_HANDLER = "compress";
+    DEFLATER = ThreadLocal.withInitial(Deflater::new);
+    TILE_BUFFER = ThreadLocal.withInitial(() -> new byte[128 * 128]);
+    NO_MAPS = new int[0];
     try {
       METADATA_ITEMS = PacketPlayOutEntityMetadata.class.getDeclaredField("b");
       METADATA_ITEMS.setAccessible(true);
     } catch (final NoSuchFieldException e) {
       throw new AssertionError(e);
     }
+    COMPRESSION_THRESHOLD = getCompressionThresholdField();
   }
 
   private final Map<UUID, Channel> channels;
   private final Map<UUID, PlayerConnection> connections;
-  private final Map<UUID, Long> lastUpdated;
+  private final Map<UUID, ViewerPacing> pacing;
   private final Set<Integer> maps;
+  private final MapTileCache tiles;
   private final MinecraftKey debugMarker;
   private final String handlerName;
 
   public NMSMapPacketInterceptor() {
     this.channels = new ConcurrentHashMap<>();
     this.connections = new ConcurrentHashMap<>();
-    this.lastUpdated = new ConcurrentHashMap<>();
+    this.pacing = new ConcurrentHashMap<>();
     this.maps = new TreeSet<>();
+    this.tiles = new MapTileCache();
     this.debugMarker = new MinecraftKey("debug/game_test_add_marker");
     this.handlerName = "ezmediacore_handler_1171";
   }
@@ -118,6 +143,8 @@ public final class NMSMapPacketInterceptor implements PacketHandler {
     final int yLoopMax = Math.min(height, (int) Math.ceil(negYOff / 128.0));
     final PacketPlayOutMap[] packetArray =
         new PacketPlayOutMap[(xLoopMax - xLoopMin) * (yLoopMax - yLoopMin)];
+    final int[] mapArray = new int[packetArray.length];
+    final int[] versionArray = new int[packetArray.length];
     int arrIndex = 0;
     for (int y = yLoopMin; y < yLoopMax; y++) {
       final int relY = y << 7;
@@ -127,57 +154,44 @@ public final class NMSMapPacketInterceptor implements PacketHandler {
         final int relX = x << 7;
         final int topX = Math.max(0, xOff - relX);
         final int xDiff = Math.min(128 - topX, negXOff - (relX + topX));
-        final int xPixMax = xDiff + topX;
-        final int yPixMax = yDiff + topY;
-        final byte[] mapData = new byte[xDiff * yDiff];
-
-        //        IMPLEMENTATION #1
-        //        IntStream.range(topY, yPixMax).parallel().forEach(iy -> {
-        //          final int yPos = relY + iy;
-        //          final int indexY = (yPos - yOff) * videoWidth;
-        //          IntStream.range(topX, xPixMax).parallel().forEach(ix -> {
-        //            final int val = (iy - topY) * xDiff + ix - topX;
-        //            mapData[val] = rgb.get(indexY + relX + ix - xOff);
-        //          });
-        //        });
-
-        //        IMPLEMENTATION #2
-        //        IntStream.range(topY, yPixMax).parallel().forEach(iy -> {
-        //          final int yPos = relY + iy;
-        //          final int indexY = (yPos - yOff) * videoWidth;
-        //          for (int ix = topX; ix < xPixMax; ix++) {
-        //            final int val = (iy - topY) * xDiff + ix - topX;
-        //            mapData[val] = rgb.get(indexY + relX + ix - xOff);
-        //          }
-        //        });
-
-        for (int iy = topY; iy < yPixMax; iy++) {
-          final int yPos = relY + iy;
-          final int indexY = (yPos - yOff) * videoWidth;
-          for (int ix = topX; ix < xPixMax; ix++) {
-            mapData[(iy - topY) * xDiff + ix - topX] = rgb.getByte(indexY + relX + ix - xOff);
-          }
-        }
+        final byte[] mapData = TILE_BUFFER.get();
+        MapUtils.copyTile(
+            rgb, mapData, videoWidth, xOff, yOff, relX, relY, topX, topY, xDiff, yDiff);
         final int mapId = map + width * y + x;
-        final PacketPlayOutMap packet =
-            new PacketPlayOutMap(
-                mapId,
-                (byte) 0,
-                false,
-                new ArrayList<>(),
-                new WorldMap.b(topX, topY, xDiff, yDiff, mapData));
+        final Region region = this.tiles.update(mapId, topX, topY, xDiff, yDiff, mapData);
+        if (region == null) {
+          continue;
+        }
+        final PacketPlayOutMap packet = this.createMapPacket(mapId, region);
+        mapArray[arrIndex] = mapId;
+        versionArray[arrIndex] = this.tiles.getVersion(mapId);
         packetArray[arrIndex++] = packet;
         PACKET_DIFFERENTIATION.add(packet);
       }
     }
-    if (viewers == null) {
-      for (final UUID uuid : this.connections.keySet()) {
-        this.sendMapPacketsToViewers(uuid, packetArray);
-      }
-    } else {
-      for (final UUID uuid : viewers) {
-        this.sendMapPacketsToViewers(uuid, packetArray);
+    final int lastMap = map + width * height;
+    if (arrIndex == 0) {
+      this.resynchronizeViewers(viewers, map, lastMap);
+      return;
+    }
+    final PacketPlayOutMap[] packets =
+        arrIndex == packetArray.length ? packetArray : Arrays.copyOf(packetArray, arrIndex);
+    final int[] maps = arrIndex == mapArray.length ? mapArray : Arrays.copyOf(mapArray, arrIndex);
+    final int[] versions =
+        arrIndex == versionArray.length ? versionArray : Arrays.copyOf(versionArray, arrIndex);
+    final EncodedPackets encoded = new EncodedPackets(packets, maps, versions);
+    try {
+      if (viewers == null) {
+        for (final UUID uuid : this.connections.keySet()) {
+          this.sendMapPacketsToViewers(uuid, encoded, map, lastMap);
+        }
+      } else {
+        for (final UUID uuid : viewers) {
+          this.sendMapPacketsToViewers(uuid, encoded, map, lastMap);
+        }
       }
+    } finally {
+      encoded.release();
     }
   }
 
@@ -188,16 +202,18 @@ public final class NMSMapPacketInterceptor implements PacketHandler {
       final String character,
       final int width,
       final int height) {
+    final List<Packet<?>> packets = new ArrayList<>(height);
     for (int y = 0; y < height; ++y) {
-      for (final UUID uuid : viewers) {
-        final PlayerConnection connection = this.connections.get(uuid);
-        final IChatBaseComponent[] base =
-            CraftChatMessage.fromString(this.createChatComponent(character, data, width, y));
-        for (final IChatBaseComponent component : base) {
-          connection.a(new PacketPlayOutChat(component, ChatMessageType.b, SystemUtils.b));
-        }
+      final IChatBaseComponent[] base =
+          CraftChatMessage.fromString(this.createChatComponent(character, data, width, y));
+      for (final IChatBaseComponent component : base) {
+        packets.add(new PacketPlayOutChat(component, ChatMessageType.b, SystemUtils.b));
       }
     }
+    final Packet<?>[] packetArray = packets.toArray(new Packet<?>[0]);
+    for (final UUID uuid : viewers) {
+      this.sendPacketsToViewer(uuid, packetArray);
+    }
   }
 
   @Override
@@ -220,11 +236,11 @@ public final class NMSMapPacketInterceptor implements PacketHandler {
     }
     if (viewers == null) {
       for (final UUID uuid : this.connections.keySet()) {
-        this.sendEntityPacketToViewers(uuid, packets);
+        this.sendPacketsToViewer(uuid, packets);
       }
     } else {
       for (final UUID uuid : viewers) {
-        this.sendEntityPacketToViewers(uuid, packets);
+        this.sendPacketsToViewer(uuid, packets);
       }
     }
   }
@@ -250,24 +266,195 @@ public final class NMSMapPacketInterceptor implements PacketHandler {
     return packet;
   }
 
-  private void sendEntityPacketToViewers(
-      @NotNull final UUID uuid, @NotNull final PacketPlayOutEntityMetadata @NotNull [] packets) {
-    final PlayerConnection connection = this.connections.get(uuid);
-    for (final PacketPlayOutEntityMetadata packet : packets) {
-      connection.a(packet);
+  private void sendPacketsToViewer(
+      @NotNull final UUID uuid, @NotNull final Packet<?> @NotNull [] packets) {
+    final Channel channel = this.channels.get(uuid);
+    if (channel == null) {
+      final PlayerConnection connection = this.connections.get(uuid);
+      if (connection != null) {
+        for (final Packet<?> packet : packets) {
+          connection.a(packet);
+        }
+      }
+      return;
     }
+    channel
+        .eventLoop()
+        .execute(
+            () -> {
+              for (final Packet<?> packet : packets) {
+                channel.write(packet, channel.voidPromise());
+              }
+              channel.flush();
+            });
   }
 
   private void sendMapPacketsToViewers(
-      @NotNull final UUID uuid, @NotNull final PacketPlayOutMap[] packetArray) {
-    final long val = this.lastUpdated.getOrDefault(uuid, 0L);
-    if (System.currentTimeMillis() - val > PACKET_THRESHOLD_MS) {
-      this.lastUpdated.put(uuid, System.currentTimeMillis());
-      final PlayerConnection connection = this.connections.get(uuid);
-      for (final PacketPlayOutMap packet : packetArray) {
+      @NotNull final UUID uuid,
+      @NotNull final EncodedPackets packets,
+      final int firstMap,
+      final int lastMap) {
+    final PlayerConnection connection = this.connections.get(uuid);
+    final ViewerPacing pacing = this.pacing.get(uuid);
+    if (connection == null || pacing == null) {
+      return;
+    }
+    final Channel channel = this.channels.get(uuid);
+    if (channel != null && this.isBehind(channel, packets.getSize())) {
+      pacing.drop(packets.getMaps());
+      return;
+    }
+    pacing.checkBaselines(this.tiles, firstMap, lastMap, packets.getMaps(), packets.getVersions());
+    final Packet<?>[] resync = this.resynchronize(pacing, firstMap, lastMap);
+    final ChannelPipeline pipeline = channel == null ? null : channel.pipeline();
+    final ChannelHandlerContext compressor =
+        pipeline == null ? null : pipeline.context(COMPRESSOR_HANDLER);
+    final ChannelHandlerContext encoder =
+        pipeline == null ? null : pipeline.context(ENCODER_HANDLER);
+    final int threshold = compressor == null ? -1 : getCompressionThreshold(compressor.handler());
+    if (threshold >= 0) {
+      this.writeEncodedPackets(channel, compressor, resync, packets.getCompressed(threshold));
+    } else if (encoder != null) {
+      this.writeEncodedPackets(channel, encoder, resync, packets.getEncoded());
+    } else {
+      for (final Packet<?> packet : resync) {
+        connection.a(packet);
+      }
+      for (final Packet<?> packet : packets.getPackets()) {
         connection.a(packet);
       }
     }
+    pacing.deliver(packets.getMaps(), packets.getVersions());
+  }
+
+  private boolean isBehind(@NotNull final Channel channel, final long frameBytes) {
+    if (!channel.isWritable()) {
+      return true;
+    }
+    final ChannelOutboundBuffer buffer = channel.unsafe().outboundBuffer();
+    if (buffer == null) {
+      return false;
+    }
+    final long limit = Math.max(frameBytes, channel.config().getWriteBufferLowWaterMark());
+    return buffer.totalPendingWriteBytes() > limit;
+  }
+
+  private void resynchronizeViewers(final UUID[] viewers, final int firstMap, final int lastMap) {
+    if (viewers == null) {
+      for (final UUID uuid : this.connections.keySet()) {
+        this.resynchronizeViewer(uuid, firstMap, lastMap);
+      }
+    } else {
+      for (final UUID uuid : viewers) {
+        this.resynchronizeViewer(uuid, firstMap, lastMap);
+      }
+    }
+  }
+
+  private void resynchronizeViewer(
+      @NotNull final UUID uuid, final int firstMap, final int lastMap) {
+    final ViewerPacing pacing = this.pacing.get(uuid);
+    if (pacing == null) {
+      return;
+    }
+    final Channel channel = this.channels.get(uuid);
+    if (channel != null && !channel.isWritable()) {
+      return;
+    }
+    pacing.checkBaselines(this.tiles, firstMap, lastMap, NO_MAPS, NO_MAPS);
+    final Packet<?>[] resync = this.resynchronize(pacing, firstMap, lastMap);
+    if (resync.length > 0) {
+      this.sendPacketsToViewer(uuid, resync);
+    }
+  }
+
+  private @NotNull Packet<?> @NotNull [] resynchronize(
+      @NotNull final ViewerPacing pacing, final int firstMap, final int lastMap) {
+    final int[] stale = pacing.drainStale(firstMap, lastMap);
+    final List<Packet<?>> packets = new ArrayList<>(stale.length);
+    for (final int map : stale) {
+      final int version = this.tiles.getVersion(map);
+      final Region region = this.tiles.snapshot(map);
+      if (region != null) {
+        packets.add(this.createMapPacket(map, region));
+        pacing.receive(map, version);
+      }
+    }
+    return packets.toArray(new Packet<?>[0]);
+  }
+
+  @NotNull
+  private PacketPlayOutMap createMapPacket(final int map, @NotNull final Region region) {
+    return new PacketPlayOutMap(
+        map,
+        (byte) 0,
+        false,
+        new ArrayList<>(),
+        new WorldMap.b(region.x(), region.y(), region.width(), region.height(), region.data()));
+  }
+
+  private void writeEncodedPackets(
+      @NotNull final Channel channel,
+      @NotNull final ChannelHandlerContext context,
+      @NotNull final Packet<?> @NotNull [] packets,
+      @NotNull final ByteBuf @NotNull [] buffers) {
+    final ByteBuf[] duplicates = new ByteBuf[buffers.length];
+    for (int i = 0; i < buffers.length; i++) {
+      duplicates[i] = buffers[i].retainedDuplicate();
+    }
+    channel
+        .eventLoop()
+        .execute(
+            () -> {
+              for (final Packet<?> packet : packets) {
+                channel.write(packet, channel.voidPromise());
+              }
+              for (final ByteBuf buf : duplicates) {
+                context.write(buf, channel.voidPromise());
+              }
+              channel.flush();
+            });
+  }
+
+  private static Field getCompressionThresholdField() {
+    try {
+      // the threshold, declared after the buffer (a) and the deflater (b)
+      final Field field = PacketCompressor.class.getDeclaredField("c");
+      if (field.getType() != int.class) {
+        return null;
+      }
+      field.setAccessible(true);
+      return field;
+    } catch (final NoSuchFieldException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Gets the threshold of the vanilla compressor, above which packets are deflated.
+   *
+   * @param compressor the handler registered as the compressor
+   * @return the threshold, or -1 if the handler is not the vanilla compressor or the threshold
+   *     could not be read. Packets are then written in front of the compressor, which frames them
+   *     itself
+   */
+  private static int getCompressionThreshold(@NotNull final ChannelHandler compressor) {
+    if (COMPRESSION_THRESHOLD == null || compressor.getClass() != PacketCompressor.class) {
+      return -1;
+    }
+    try {
+      return COMPRESSION_THRESHOLD.getInt(compressor);
+    } catch (final IllegalAccessException e) {
+      return -1;
+    }
+  }
+
+  private static void writeVarInt(@NotNull final ByteBuf buf, int value) {
+    while ((value & -128) != 0) {
+      buf.writeByte(value & 127 | 128);
+      value >>>= 7;
+    }
+    buf.writeByte(value);
   }
 
   @Override
@@ -283,6 +470,7 @@ public final class NMSMapPacketInterceptor implements PacketHandler {
       pipeline.addBefore("packet_handler", this.handlerName, new PacketInterceptor(player));
     }
     this.connections.put(player.getUniqueId(), conn);
+    this.pacing.put(player.getUniqueId(), new ViewerPacing());
   }
 
   @Override
@@ -296,6 +484,19 @@ public final class NMSMapPacketInterceptor implements PacketHandler {
       }
     }
     this.connections.remove(player.getUniqueId());
+    this.pacing.remove(player.getUniqueId());
+  }
+
+  @Override
+  public double getEffectiveFrameRate(@NotNull final UUID viewer) {
+    final ViewerPacing pacing = this.pacing.get(viewer);
+    return pacing == null ? 0 : pacing.getFrameRate();
+  }
+
+  @Override
+  public long getDroppedFrames(@NotNull final UUID viewer) {
+    final ViewerPacing pacing = this.pacing.get(viewer);
+    return pacing == null ? 0 : pacing.getDroppedFrames();
   }
 
   @Override
@@ -306,6 +507,7 @@ public final class NMSMapPacketInterceptor implements PacketHandler {
   @Override
   public void unregisterMap(final int id) {
     this.maps.remove(id);
+    this.tiles.remove(id);
   }
 
   @Override
@@ -327,6 +529,115 @@ public final class NMSMapPacketInterceptor implements PacketHandler {
     return packet;
   }
 
+  /**
+   * Serializes a frame's packets once, framing them the same way the vanilla encoder (and, if
+   * enabled, compressor) would. Every viewer then receives retained duplicates of those buffers.
+   */
+  private static final class EncodedPackets {
+
+    private final Packet<?>[] packets;
+    private final int[] maps;
+    private final int[] versions;
+    private ByteBuf[] encoded;
+    private ByteBuf[] compressed;
+    private int threshold;
+
+    private EncodedPackets(
+        @NotNull final Packet<?> @NotNull [] packets,
+        final int @NotNull [] maps,
+        final int @NotNull [] versions) {
+      this.packets = packets;
+      this.maps = maps;
+      this.versions = versions;
+      this.threshold = -1;
+    }
+
+    private @NotNull Packet<?> @NotNull [] getPackets() {
+      return this.packets;
+    }
+
+    private int @NotNull [] getMaps() {
+      return this.maps;
+    }
+
+    private int @NotNull [] getVersions() {
+      return this.versions;
+    }
+
+    private long getSize() {
+      long size = 0;
+      for (final ByteBuf buf : this.getEncoded()) {
+        size += buf.readableBytes();
+      }
+      return size;
+    }
+
+    private @NotNull ByteBuf @NotNull [] getEncoded() {
+      if (this.encoded == null) {
+        final ByteBuf[] buffers = new ByteBuf[this.packets.length];
+        for (int i = 0; i < buffers.length; i++) {
+          final Packet<?> packet = this.packets[i];
+          final ByteBuf buf = Unpooled.buffer();
+          writeVarInt(buf, EnumProtocol.b.a(EnumProtocolDirection.b, packet));
+          packet.a(new PacketDataSerializer(buf));
+          buffers[i] = buf;
+        }
+        this.encoded = buffers;
+      }
+      return this.encoded;
+    }
+
+    private @NotNull ByteBuf @NotNull [] getCompressed(final int threshold) {
+      if (this.compressed == null || this.threshold != threshold) {
+        this.releaseCompressed();
+        final ByteBuf[] raw = this.getEncoded();
+        final ByteBuf[] buffers = new ByteBuf[raw.length];
+        final Deflater deflater = DEFLATER.get();
+        final byte[] chunk = new byte[8192];
+        for (int i = 0; i < buffers.length; i++) {
+          final ByteBuf source = raw[i];
+          final int length = source.readableBytes();
+          final ByteBuf buf = Unpooled.buffer();
+          if (length < threshold) {
+            writeVarInt(buf, 0);
+            buf.writeBytes(source, source.readerIndex(), length);
+          } else {
+            writeVarInt(buf, length);
+            deflater.setInput(source.nioBuffer());
+            deflater.finish();
+            while (!deflater.finished()) {
+              buf.writeBytes(chunk, 0, deflater.deflate(chunk));
+            }
+            deflater.reset();
+          }
+          buffers[i] = buf;
+        }
+        this.compressed = buffers;
+        this.threshold = threshold;
+      }
+      return this.compressed;
+    }
+
+    private void release() {
+      if (this.encoded != null) {
+        for (final ByteBuf buf : this.encoded) {
+          buf.release();
+        }
+        this.encoded = null;
+      }
+      this.releaseCompressed();
+    }
+
+    private void releaseCompressed() {
+      if (this.compressed != null) {
+        for (final ByteBuf buf : this.compressed) {
+          buf.release();
+        }
+        this.compressed = null;
+      }
+    }
+  }
+
   private class PacketInterceptor extends ChannelDuplexHandler {
 
     public final Player player;